@@ -0,0 +1,65 @@
+package Benchmarks;
+
+import Model.AIPlayer;
+import Model.Move;
+import Model.MoveGenerator;
+import Model.WaffleModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Génération des coups et choix d'un coup par les niveaux 1 à 3, sur une partie entamée.
+// Les niveaux 4 et 5 sont bornés par leur temps de réflexion : on les mesure avec Tools.Tournament.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AIBenchmark {
+    // Coups déjà joués avant la mesure
+    private static final int OPENING_MOVES = 8;
+
+    @Param({"6x8", "20x20", "50x50", "100x100", "200x200"})
+    public String size;
+
+    @Param({"1", "2", "3"})
+    public int level;
+
+    private WaffleModel model;
+    private AIPlayer player;
+    private int[] heights;
+    private int[] buffer;
+
+    @Setup
+    public void setUp() {
+        model = Positions.withHistory(size, OPENING_MOVES);
+        player = new AIPlayer(model, 42);
+        heights = model.getColumnHeights();
+        buffer = new int[model.getWidth() * model.getHeight()];
+
+        // La table de finales du niveau 3 est construite une fois par taille, hors mesure
+        player.makeMove(level);
+    }
+
+    @Benchmark
+    public Move makeMove() {
+        return player.makeMove(level);
+    }
+
+    // Ne dépend pas du niveau : ce que faisait getValidMoves
+    @Benchmark
+    public int generateMoves() {
+        return MoveGenerator.generate(heights, 2, buffer);
+    }
+}
@@ -0,0 +1,28 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+    // Usage : BenchmarkRunner <fichier csv> [filtre]
+    // Lance les suites (toutes par défaut, ou celles dont le nom correspond au filtre) avec
+    // le profileur GC, pour obtenir ns/op et octets alloués par opération (gc.alloc.rate.norm).
+    public static void main(String[] args) throws RunnerException {
+        if (args.length < 1) {
+            System.err.println("Usage : BenchmarkRunner <fichier csv> [filtre]");
+            System.exit(1);
+        }
+
+        Options options = new OptionsBuilder()
+                .include((args.length > 1) ? args[1] : "Benchmarks\\..*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result(args[0])
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompareResults {
+    // Écart toléré (en %) avant de signaler une régression
+    private static final double DEFAULT_THRESHOLD = 10.0;
+    // En dessous, une variation d'allocation n'est que du bruit de mesure
+    private static final double ALLOCATION_NOISE_BYTES = 16.0;
+
+    // Usage : CompareResults <référence csv> <mesure csv> [seuil %]
+    // Compare deux résultats de BenchmarkRunner (temps par opération et octets alloués par
+    // opération). Le code de sortie vaut 1 si une mesure s'est dégradée au-delà du seuil.
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : CompareResults <référence csv> <mesure csv> [seuil %]");
+            System.exit(2);
+        }
+
+        Map<String, double[]> baseline = read(Paths.get(args[0]));
+        Map<String, double[]> current = read(Paths.get(args[1]));
+        double threshold = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        int regressions = 0;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.1f   nouveau%n", entry.getKey(), "-", entry.getValue()[0]);
+                continue;
+            }
+            double now = entry.getValue()[0];
+            // Une opération qui n'allouait rien et qui alloue désormais compte comme une dégradation infinie
+            double change = (before[0] == 0)
+                    ? (now > 0 ? Double.POSITIVE_INFINITY : 0)
+                    : 100.0 * (now - before[0]) / before[0];
+            boolean allocation = entry.getKey().contains("gc.alloc.rate.norm");
+            boolean regression = change > threshold
+                    && !(allocation && now - before[0] < ALLOCATION_NOISE_BYTES)
+                    && now - before[0] > before[1] + entry.getValue()[1];  // hors des marges d'erreur
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.1f %14.1f %+8.1f %%%s%n",
+                    entry.getKey(), before[0], now, change, regression ? "   RÉGRESSION" : "");
+        }
+
+        System.out.printf("%d régression(s) au-delà de %.1f %%%n", regressions, threshold);
+        System.exit((regressions > 0) ? 1 : 0);
+    }
+
+    // Clé (banc d'essai, unité, paramètres) -> {score, marge d'erreur}. Seuls le temps par
+    // opération et les octets alloués par opération sont retenus.
+    private static Map<String, double[]> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> header = split(lines.get(0));
+        int score = header.indexOf("Score");
+        int error = header.indexOf("Score Error (99.9%)");
+        int unit = header.indexOf("Unit");
+
+        Map<String, double[]> results = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = split(line);
+            if (fields.size() != header.size() || !fields.get(unit).endsWith("/op")) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(fields.get(0)).append(" [").append(fields.get(unit));
+            for (int i = unit + 1; i < header.size(); i++) {
+                key.append(", ").append(header.get(i).replace("Param: ", "")).append('=').append(fields.get(i));
+            }
+            key.append(']');
+            double err = fields.get(error).isEmpty() || fields.get(error).equals("NaN")
+                    ? 0 : Double.parseDouble(fields.get(error));
+            results.put(key.toString(), new double[]{Double.parseDouble(fields.get(score)), err});
+        }
+        return results;
+    }
+
+    // Découpage d'une ligne CSV dont les champs peuvent être entre guillemets
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
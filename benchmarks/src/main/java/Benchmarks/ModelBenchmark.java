@@ -0,0 +1,85 @@
+package Benchmarks;
+
+import Model.Move;
+import Model.WaffleModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Coups, annulations et déplacements dans l'historique de WaffleModel
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+    @Param({"6x8", "20x20", "50x50", "100x100", "200x200"})
+    public String size;
+
+    @Param({"16", "256", "4096"})
+    public int historyLength;
+
+    private WaffleModel model;
+    private int lastIndex;
+    private int lastX;
+    private int lastY;
+
+    @Setup
+    public void setUp() {
+        model = Positions.withHistory(size, historyLength);
+        lastIndex = model.getCurrentMoveIndex();
+        Move last = model.getMoveHistory().get(lastIndex);
+        lastX = last.getX();
+        lastY = last.getY();
+    }
+
+    // Annuler le dernier coup puis le rejouer par makeMove (troncature, ajout à
+    // l'historique et application du coup)
+    @Benchmark
+    public boolean undoThenMakeMove() {
+        model.undoMove();
+        return model.makeMove(lastX, lastY);
+    }
+
+    @Benchmark
+    public boolean undoThenRedo() {
+        model.undoMove();
+        return model.redoMove();
+    }
+
+    // Retour au début puis à la fin de la partie : ce que coûtait la reconstruction
+    // complète de l'état à chaque annulation
+    @Benchmark
+    public boolean seekStartThenEnd() {
+        model.goToMove(-1);
+        return model.goToMove(lastIndex);
+    }
+
+    @Benchmark
+    public int[] columnHeights() {
+        return model.getColumnHeights();
+    }
+
+    @Benchmark
+    public boolean[][] waffleGrid() {
+        return model.getWaffle();
+    }
+
+    @Benchmark
+    public Move readHistory() {
+        List<Move> history = model.getMoveHistory();
+        return history.get(history.size() - 1);
+    }
+}
@@ -0,0 +1,55 @@
+package Benchmarks;
+
+import Model.GameFile;
+import Model.WaffleModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Sauvegarde et chargement d'une partie, en mémoire pour ne pas mesurer le disque
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistenceBenchmark {
+    @Param({"6x8", "20x20", "50x50", "100x100", "200x200"})
+    public String size;
+
+    @Param({"16", "256", "4096"})
+    public int historyLength;
+
+    private WaffleModel model;
+    private ByteBuffer saved;
+
+    @Setup
+    public void setUp() {
+        model = Positions.withHistory(size, historyLength);
+        saved = save();
+    }
+
+    // Octets écrits par WaffleController.saveGame (GameFile.write sans le disque)
+    @Benchmark
+    public ByteBuffer save() {
+        return GameFile.encode(model);
+    }
+
+    // Partie relue par WaffleController.loadGame (GameFile.read sans le disque)
+    @Benchmark
+    public WaffleModel load() throws IOException {
+        return GameFile.decode(saved.duplicate());
+    }
+}
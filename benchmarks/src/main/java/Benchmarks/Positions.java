@@ -0,0 +1,30 @@
+package Benchmarks;
+
+import Model.WaffleModel;
+
+final class Positions {
+    private Positions() {
+    }
+
+    // "200x200" -> {200, 200}
+    static int[] parseSize(String size) {
+        String[] dimensions = size.split("x");
+        return new int[]{Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])};
+    }
+
+    // Partie de moves coups au plus, chacun ne mangeant qu'une case (la plus à droite
+    // de la dernière ligne). L'historique est ainsi le plus long possible, quelle que soit
+    // la taille de la gaufre, et la case empoisonnée n'est jamais prise.
+    static WaffleModel withHistory(String size, int moves) {
+        int[] dimensions = parseSize(size);
+        WaffleModel model = new WaffleModel(dimensions[0], dimensions[1]);
+        for (int i = 0; i < moves && model.getRemainingCells() > 1; i++) {
+            int x = model.getWidth() - 1;
+            while (model.getColumnHeight(x) == 0) {
+                x--;
+            }
+            model.makeMove(x, model.getColumnHeight(x) - 1);
+        }
+        return model;
+    }
+}
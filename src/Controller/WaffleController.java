@@ -1,20 +1,67 @@
 package Controller;
 
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.PersistenceEvent;
+import Model.GameFile;
+import Model.GameJournal;
+import Model.GameState;
+import Model.Hint;
 import Model.Move;
+import Model.Ponderer;
 import Model.WaffleModel;
 import View.WaffleGameView;
 
 import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class WaffleController {
     private WaffleModel model;
     private WaffleGameView view;
 
+    // Sauvegarde automatique de chaque action, écrite en arrière-plan
+    private final GameJournal journal;
+
+    // Délai d'affichage minimal par défaut de la réponse de l'IA, pour que le joueur voie son coup
+    public static final long DEFAULT_AI_MINIMUM_DISPLAY_MILLIS = 500;
+
+    // Fil de réflexion de l'IA : une recherche à la fois, jamais sur l'EDT
+    private static final ExecutorService AI_WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waffle-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final LatencyHistogram SAVE_TIME = MetricsRegistry.histogram("io.save");
+    private static final LatencyHistogram LOAD_TIME = MetricsRegistry.histogram("io.load");
+
+    // État de la demande en cours (EDT uniquement) : son numéro, sa tâche et son délai d'affichage
+    private long aiRequest;
+    private boolean aiMovePending;
+    private Future<?> pendingAIMove;
+    private Timer aiDisplayTimer;
+    private long aiMinimumDisplayMillis = DEFAULT_AI_MINIMUM_DISPLAY_MILLIS;
+
+    // Réflexion anticipée pendant le tour du joueur (niveaux 4 et 5), recréée avec la partie
+    private Ponderer ponderer;
+    private boolean pondering = true;
+    private int ponderingThreads = 1;
+    private long ponderingBudgetMillis = Ponderer.DEFAULT_BUDGET_MILLIS;
+
     public WaffleController() {
-        this.model = new WaffleModel();
+        // Reprendre la dernière partie si le jeu a été fermé (ou a planté) en cours de route
+        WaffleModel recovered = GameJournal.recover(GameJournal.getDirectory());
+        this.model = (recovered != null) ? recovered : new WaffleModel();
+
+        journal = new GameJournal(GameJournal.getDirectory());
+        journal.attach(model);
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "waffle-autosave-flush"));
     }
 
     public void setView(WaffleGameView view) {
@@ -23,48 +70,203 @@ public class WaffleController {
     }
 
     public void newGame() {
+        cancelAIMove();
         model.initGame();
+        journal.attach(model);
         updateView();
+        startPondering();
     }
 
     public void makeMove(int x, int y) {
-        if (!model.isGameOver()) {
+        // Pas de clic pendant que l'IA réfléchit à son coup
+        if (!model.isGameOver() && !aiMovePending) {
             boolean moveMade = model.makeMove(x, y);
             if (moveMade) {
+                journal.moveMade(x, y);
                 updateView();
 
                 // Check if AI should play after player's move
                 if (model.getCurrentPlayer() == 2 && model.isAIPlaying()) {
-                    makeAIMoveWithDelay();
+                    requestAIMove();
                 }
             }
         }
     }
 
-    private void makeAIMoveWithDelay() {
-        ActionListener taskPerformer = new ActionListener() {
-            public void actionPerformed(ActionEvent evt) {
-                Move aiMove = model.getAIMove();
-                if (aiMove != null) {
-                    model.makeMove(aiMove.getX(), aiMove.getY());
-                    updateView();
-                }
+    // Le coup de l'IA est calculé sur un fil dédié, à partir d'une photo de la position, puis
+    // joué sur l'EDT. Tout changement de partie (nouvelle partie, annulation, chargement...)
+    // annule la réflexion en cours : son résultat, s'il arrive quand même, est ignoré.
+    private void requestAIMove() {
+        cancelAIMove();
+
+        WaffleModel target = model;
+        GameState position = model.getState();
+        int level = model.getAILevel();
+        long thinkMillis = model.getAIThinkMillis();
+        Ponderer anticipated = pondering ? getPonderer() : null;
+        long request = aiRequest;
+        long start = System.nanoTime();
+        aiMovePending = true;
+
+        pendingAIMove = AI_WORKER.submit(() -> {
+            Move aiMove = computeAIMove(target, anticipated, position, level, thinkMillis);
+            SwingUtilities.invokeLater(() -> showAIMove(request, target, aiMove, start));
+        });
+    }
+
+    // Sur le fil de l'IA. En cas d'erreur, aucun coup : la main revient au joueur.
+    private static Move computeAIMove(WaffleModel target, Ponderer anticipated, GameState position, int level,
+                                      long thinkMillis) {
+        try {
+            if (anticipated != null && anticipated.isUseful(level)) {
+                return anticipated.reply(position, level, thinkMillis);
+            }
+            return target.getAIMove(position, level);
+        } catch (RuntimeException e) {
+            System.err.println("Erreur de l'IA : " + e);
+            return null;
+        }
+    }
+
+    // Joue le coup calculé, après le délai d'affichage minimal s'il n'est pas encore écoulé
+    private void showAIMove(long request, WaffleModel target, Move aiMove, long start) {
+        if (request != aiRequest || target != model) {
+            return;
+        }
+        long remaining = aiMinimumDisplayMillis - (System.nanoTime() - start) / 1_000_000;
+        if (remaining > 0) {
+            aiDisplayTimer = new Timer((int) remaining, e -> playAIMove(request, aiMove));
+            aiDisplayTimer.setRepeats(false);
+            aiDisplayTimer.start();
+        } else {
+            playAIMove(request, aiMove);
+        }
+    }
+
+    private void playAIMove(long request, Move aiMove) {
+        if (request != aiRequest) {
+            return;
+        }
+        aiMovePending = false;
+        pendingAIMove = null;
+        aiDisplayTimer = null;
+        if (aiMove != null && !model.isGameOver() && model.makeMove(aiMove.getX(), aiMove.getY())) {
+            journal.moveMade(aiMove.getX(), aiMove.getY());
+            updateView();
+            startPondering();
+        }
+    }
+
+    // Pendant que le joueur réfléchit, l'IA prépare sa réponse à chacun de ses coups possibles
+    private void startPondering() {
+        if (!pondering || aiMovePending || !model.isAIPlaying() || model.isGameOver()
+                || model.getCurrentPlayer() != 1) {
+            return;
+        }
+        getPonderer().start(model.getState(), model.getAILevel(), model.getAIThinkMillis());
+    }
+
+    private Ponderer getPonderer() {
+        if (ponderer == null || ponderer.getModel() != model) {
+            if (ponderer != null) {
+                ponderer.shutdown();
             }
-        };
-        Timer timer = new Timer(2000, taskPerformer);
-        timer.setRepeats(false);
-        timer.start();
+            ponderer = new Ponderer(model, ponderingThreads, ponderingBudgetMillis);
+        }
+        return ponderer;
+    }
+
+    private void resetPonderer() {
+        if (ponderer != null) {
+            ponderer.shutdown();
+            ponderer = null;
+        }
+    }
+
+    private void cancelAIMove() {
+        aiRequest++;
+        aiMovePending = false;
+        if (pendingAIMove != null) {
+            pendingAIMove.cancel(true);  // interrompt la recherche
+            pendingAIMove = null;
+        }
+        if (aiDisplayTimer != null) {
+            aiDisplayTimer.stop();
+            aiDisplayTimer = null;
+        }
+        if (ponderer != null) {
+            ponderer.cancel();
+        }
+    }
+
+    // Temps minimal entre le coup du joueur et l'affichage de la réponse de l'IA (0 = aucun)
+    public void setAIMinimumDisplayMillis(long millis) {
+        aiMinimumDisplayMillis = Math.max(0, millis);
+    }
+
+    public boolean isAIThinking() {
+        return aiMovePending;
+    }
+
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (pondering) {
+            startPondering();
+        } else {
+            resetPonderer();
+        }
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    // Nombre de réponses étudiées en parallèle ; chaque fil a sa propre table de transposition
+    public void setPonderingThreads(int threads) {
+        if (threads > 0 && threads != ponderingThreads) {
+            ponderingThreads = threads;
+            resetPonderer();
+            startPondering();
+        }
+    }
+
+    // Temps total consacré à la réflexion anticipée pendant un tour du joueur
+    public void setPonderingBudgetMillis(long millis) {
+        if (millis > 0 && millis != ponderingBudgetMillis) {
+            ponderingBudgetMillis = millis;
+            resetPonderer();
+            startPondering();
+        }
     }
 
     public void undoMove() {
+        cancelAIMove();
         if (model.undoMove()) {
+            journal.undone();
             updateView();
+            startPondering();
         }
     }
 
     public void redoMove() {
+        cancelAIMove();
         if (model.redoMove()) {
+            journal.redone();
             updateView();
+            startPondering();
+        }
+    }
+
+    // Se placer directement après le coup d'indice index (-1 = début de partie)
+    public void goToMove(int index) {
+        if (index == model.getCurrentMoveIndex()) {
+            return;
+        }
+        cancelAIMove();
+        if (model.goToMove(index)) {
+            journal.seeked(index);
+            updateView();
+            startPondering();
         }
     }
 
@@ -77,9 +279,11 @@ public class WaffleController {
     }
 
     public void getHint() {
-        Move hint = model.getHint();
+        int player = model.getCurrentPlayer();
+        Hint hint = model.getHint();
         if (hint != null) {
-            view.showHint(hint.getX(), hint.getY());
+            journal.hintUsed(player);
+            view.showHint(hint);
         } else {
             view.showInfoMessage("Aucun indice disponible.");
         }
@@ -87,15 +291,22 @@ public class WaffleController {
 
     public void setAIPlaying(boolean aiPlaying) {
         model.setAIPlaying(aiPlaying);
+        journal.settingsChanged();
 
         // Si l'IA est activée et c'est le tour du joueur 2, faire jouer l'IA
-        if (aiPlaying && model.getCurrentPlayer() == 2) {
-            makeAIMoveWithDelay();
+        if (aiPlaying && model.getCurrentPlayer() == 2 && !model.isGameOver()) {
+            requestAIMove();
+        } else if (!aiPlaying) {
+            cancelAIMove();
+        } else {
+            startPondering();
         }
     }
 
     public void setAILevel(int level) {
         model.setAILevel(level);
+        journal.settingsChanged();
+        startPondering();
     }
 
     public void saveGame() {
@@ -106,12 +317,12 @@ public class WaffleController {
             File file = fileChooser.getSelectedFile();
 
             // Ajouter l'extension .waf si elle n'est pas présente
-            if (!file.getName().toLowerCase().endsWith(".waf")) {
-                file = new File(file.getAbsolutePath() + ".waf");
+            if (!file.getName().toLowerCase().endsWith(GameFile.EXTENSION)) {
+                file = new File(file.getAbsolutePath() + GameFile.EXTENSION);
             }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(model);
+            try {
+                save(model, file.toPath());
                 view.showInfoMessage("Partie sauvegardée avec succès !");
             } catch (IOException e) {
                 view.showErrorMessage("Erreur lors de la sauvegarde de la partie : " + e.getMessage());
@@ -126,16 +337,65 @@ public class WaffleController {
         if (result == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
 
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                model = (WaffleModel) ois.readObject();
+            // Format .waf, ou ancienne sauvegarde par sérialisation Java (importée)
+            try {
+                WaffleModel loaded = load(file.toPath());
+                cancelAIMove();
+                model = loaded;
+                journal.attach(model);
                 updateView();
+                startPondering();
                 view.showInfoMessage("Partie chargée avec succès !");
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 view.showErrorMessage("Erreur lors du chargement de la partie : " + e.getMessage());
             }
         }
     }
 
+    // Sauvegarde et chargement mesurés (voir Metrics)
+    private static void save(WaffleModel model, Path file) throws IOException {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        boolean succeeded = false;
+        try {
+            GameFile.write(model, file);
+            succeeded = true;
+        } finally {
+            SAVE_TIME.recordSince(start);
+            commit(event, "save", file, succeeded);
+        }
+    }
+
+    private static WaffleModel load(Path file) throws IOException {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        boolean succeeded = false;
+        try {
+            WaffleModel loaded = GameFile.read(file);
+            succeeded = true;
+            return loaded;
+        } finally {
+            LOAD_TIME.recordSince(start);
+            commit(event, "load", file, succeeded);
+        }
+    }
+
+    private static void commit(PersistenceEvent event, String operation, Path file, boolean succeeded) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.file = file.toString();
+            event.succeeded = succeeded;
+            try {
+                event.bytes = Files.size(file);
+            } catch (IOException e) {
+                event.bytes = -1;
+            }
+            event.commit();
+        }
+    }
+
     private void updateView() {
         if (view != null) {
             view.updateView(model);
@@ -1,11 +1,15 @@
 
 import Controller.WaffleController;
+import View.Assets;
 import View.WaffleGameView;
 
 import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        // Décoder les images en arrière-plan pendant la mise en place du reste
+        Assets.preload();
+
         // Utiliser le look and feel du système
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
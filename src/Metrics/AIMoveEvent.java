@@ -0,0 +1,32 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("waffle.AIMove")
+@Label("AI Move")
+@Category("Waffle")
+@Description("Coup calculé par l'IA : niveau, gaufre et travail de la recherche")
+public class AIMoveEvent extends Event {
+    @Label("Level")
+    public int level;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Nodes or Playouts")
+    @Description("Nœuds de l'alpha-bêta (niveau 4) ou simulations Monte-Carlo (niveau 5)")
+    public long work;
+
+    @Label("Move X")
+    public int x;
+
+    @Label("Move Y")
+    public int y;
+}
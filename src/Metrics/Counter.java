@@ -0,0 +1,33 @@
+package Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter {
+    // Compteur partagé entre fils sans contention (une cellule par fil en cas de concurrence)
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        if (MetricsRegistry.ENABLED) {
+            count.increment();
+        }
+    }
+
+    public void add(long value) {
+        if (MetricsRegistry.ENABLED) {
+            count.add(value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long get() {
+        return count.sum();
+    }
+}
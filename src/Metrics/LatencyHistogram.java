@@ -0,0 +1,81 @@
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+    // Durées en nanosecondes, rangées par puissance de 2 : 64 cases couvrent toutes les
+    // durées, l'enregistrement coûte un numberOfLeadingZeros et un incrément atomique.
+    // Les percentiles sont estimés au milieu de leur case (erreur relative < 50 %).
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // start : valeur de MetricsRegistry.start() (0 quand les métriques sont coupées)
+    public void recordSince(long start) {
+        if (MetricsRegistry.ENABLED && start != 0) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public void record(long nanos) {
+        if (!MetricsRegistry.ENABLED) {
+            return;
+        }
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(value | 1));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanNanos() {
+        long n = count.sum();
+        return (n == 0) ? 0 : (double) total.sum() / n;
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    // Estimation du percentile p (entre 0 et 1), en nanosecondes
+    public long getPercentileNanos(double p) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                long low = (i == 0) ? 0 : 1L << i;
+                long high = (i == BUCKETS - 1) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(max.get(), low + (high - low) / 2);
+            }
+        }
+        return max.get();
+    }
+}
@@ -0,0 +1,93 @@
+package Metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MetricsRegistry {
+    // Compteurs et histogrammes de latence du moteur et de l'interface, en complément des
+    // événements JFR (voir les classes *Event). Activés par -Dwaffle.metrics :
+    //   absent ou "off" : coupés ; ENABLED est une constante, le JIT retire les mesures
+    //   "on" ou "print" : résumé écrit sur la sortie standard à la fermeture
+    //   autre valeur    : chemin du fichier où écrire le résumé à la fermeture
+    public static final String PROPERTY = "waffle.metrics";
+    public static final boolean ENABLED;
+
+    private static final String DESTINATION;
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        String value = System.getProperty(PROPERTY, "off");
+        ENABLED = !value.equals("off");
+        DESTINATION = ENABLED ? value : null;
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MetricsRegistry::dumpOnExit, "waffle-metrics"));
+        }
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    // Début d'une mesure, à passer à LatencyHistogram.recordSince (0 si coupées)
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void print(PrintStream out) {
+        out.print(summary());
+        out.flush();
+    }
+
+    public static void write(Path file) throws IOException {
+        Files.writeString(file, summary(), StandardCharsets.UTF_8);
+    }
+
+    // Une ligne par métrique, triées par nom ; durées en microsecondes
+    public static String summary() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            out.printf("%-32s %d%n", counter.getName(), counter.get());
+        }
+        for (LatencyHistogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.printf("%-32s n=%d moyenne=%.1f µs p50=%.1f µs p99=%.1f µs max=%.1f µs%n",
+                    histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1e3,
+                    histogram.getPercentileNanos(0.50) / 1e3, histogram.getPercentileNanos(0.99) / 1e3,
+                    histogram.getMaxNanos() / 1e3);
+        }
+        out.flush();
+        return text.toString();
+    }
+
+    private static void dumpOnExit() {
+        if (DESTINATION.equals("on") || DESTINATION.equals("print")) {
+            print(System.out);
+            return;
+        }
+        try {
+            write(Paths.get(DESTINATION));
+        } catch (IOException e) {
+            System.err.println("Métriques non écrites : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("waffle.Model")
+@Label("Model Update")
+@Category("Waffle")
+@Description("Coup joué, annulé ou rejoué sur une partie")
+public class ModelEvent extends Event {
+    @Label("Action")
+    public String action;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Move Index")
+    public int moveIndex;
+
+    @Label("Applied")
+    public boolean applied;
+}
@@ -0,0 +1,25 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("waffle.Paint")
+@Label("Board Paint")
+@Category("Waffle")
+@Description("Dessin de la gaufre : mode (image de fond, textures zoomées, contour) et zone repeinte")
+public class PaintEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Clip Pixels")
+    public long clipPixels;
+}
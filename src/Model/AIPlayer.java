@@ -1,143 +1,267 @@
 package Model;
 
+import Metrics.AIMoveEvent;
+import Metrics.Counter;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 public class AIPlayer implements Serializable {
+    private static final long serialVersionUID = 6098175946341805421L;
+
+    public static final long DEFAULT_THINK_MILLIS = 1000;
+
+    // Temps de réflexion par niveau, nœuds de l'alpha-bêta et simulations Monte-Carlo
+    private static final LatencyHistogram[] THINK_TIME = new LatencyHistogram[6];
+    private static final Counter NODES = MetricsRegistry.counter("ai.nodes");
+    private static final Counter PLAYOUTS = MetricsRegistry.counter("ai.playouts");
+    private static final Counter SOLVED = MetricsRegistry.counter("ai.analytic");
+
+    static {
+        for (int level = 0; level < THINK_TIME.length; level++) {
+            // Case 0 : niveaux inconnus (joués au hasard)
+            THINK_TIME[level] = MetricsRegistry.histogram(
+                    (level == 0) ? "ai.makeMove.other" : "ai.makeMove.level" + level);
+        }
+    }
+
     private final WaffleModel model;
     private final Random random;
 
+    // Recherche alpha-bêta (niveau 4) et Monte-Carlo (niveau 5), créées à la demande
+    private transient AlphaBetaSearcher searcher;
+    private transient MonteCarloSearcher monteCarlo;
+    // Tampon de coups codés, réutilisé d'un appel à l'autre (aucune allocation par coup)
+    private transient int[] moveBuffer;
+
+    private int searchMemoryMegabytes = AlphaBetaSearcher.DEFAULT_MEMORY_MB;
+    private long thinkMillis = DEFAULT_THINK_MILLIS;
+    private int searchThreads = Runtime.getRuntime().availableProcessors();
+    private transient long lastWork;  // nœuds ou simulations du dernier coup (0 sans recherche)
+
     public AIPlayer(WaffleModel model) {
         this.model = model;
         this.random = new Random();
     }
 
+    // Graine fixe : parties reproductibles (tournois, simulations)
+    public AIPlayer(WaffleModel model, long seed) {
+        this.model = model;
+        this.random = new Random(seed);
+    }
+
     public Move makeMove(int level) {
-        return switch (level) {
-            case 1 -> makeRandomMove();
-            case 2 -> makeIntermediateMove();
-            case 3 -> makeAdvancedMove();
-            default -> makeRandomMove();
+        return makeMove(level, model.columnHeightsView());
+    }
+
+    // Coup pour la position heights (hauteurs de colonnes) plutôt que pour la partie en cours :
+    // un fil de calcul peut ainsi réfléchir sur une copie pendant que la partie continue.
+    public Move makeMove(int level, int[] heights) {
+        AIMoveEvent event = new AIMoveEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        lastWork = 0;
+
+        Move move = switch (level) {
+            case 1 -> makeRandomMove(heights);
+            case 2 -> makeIntermediateMove(heights);
+            case 3 -> makeAdvancedMove(heights);
+            case 4 -> makeExpertMove(heights);
+            case 5 -> makeMonteCarloMove(heights);
+            default -> makeRandomMove(heights);
         };
+
+        THINK_TIME[(level >= 1 && level <= 5) ? level : 0].recordSince(start);
+        if (event.shouldCommit()) {
+            event.level = level;
+            event.width = model.getWidth();
+            event.height = model.getHeight();
+            event.work = lastWork;
+            event.x = (move != null) ? move.getX() : -1;
+            event.y = (move != null) ? move.getY() : -1;
+            event.commit();
+        }
+        return move;
     }
 
-    private Move makeRandomMove() {
-        List<Move> validMoves = getValidMoves();
-        if (validMoves.isEmpty()) {
+    private Move makeRandomMove(int[] heights) {
+        int count = generateMoves(heights);
+        if (count == 0) {
             return null;
         }
 
-        return validMoves.get(random.nextInt(validMoves.size()));
+        return Moves.toMove(moveBuffer[random.nextInt(count)]);
     }
 
-    private Move makeIntermediateMove() {
-        List<Move> validMoves = getValidMoves();
-
-        // Éviter la case empoisonnée (0,0) si possible
-        for (Move move : validMoves) {
-            if (move.getX() == 0 && move.getY() == 0) {
-                // Éviter la case empoisonnée
-                continue;
-            }
+    private Move makeIntermediateMove(int[] heights) {
+        int count = generateMoves(heights);
+        if (count == 0) {
+            return null;
+        }
 
+        // La case empoisonnée est toujours le dernier coup généré : on l'évite si possible
+        int nonLosingMoves = count - 1;
+        for (int i = 0; i < nonLosingMoves; i++) {
             // Vérifier si ce coup est gagnant
-            if (isWinningMove(move)) {
-                return move;
+            if (isWinningMove(moveBuffer[i], heights)) {
+                return Moves.toMove(moveBuffer[i]);
             }
         }
 
         // Si aucun coup gagnant n'a été trouvé, jouer aléatoirement parmi les coups non perdants
-        List<Move> nonLosingMoves = new ArrayList<>();
-        for (Move move : validMoves) {
-            if (move.getX() != 0 || move.getY() != 0) {
-                nonLosingMoves.add(move);
-            }
-        }
-
-        if (!nonLosingMoves.isEmpty()) {
-            return nonLosingMoves.get(random.nextInt(nonLosingMoves.size()));
+        if (nonLosingMoves > 0) {
+            return Moves.toMove(moveBuffer[random.nextInt(nonLosingMoves)]);
         }
 
         // S'il n'y a plus que la case empoisonnée, on est obligé de la jouer
-        return validMoves.get(0);
+        return Moves.toMove(moveBuffer[0]);
     }
 
-    private Move makeAdvancedMove() {
-        // Pour les petites tailles de gaufre, on peut calculer le coup optimal
-        if (model.getWidth() <= 6 && model.getHeight() <= 6) {
-            return findOptimalMove();
+    private Move makeAdvancedMove(int[] heights) {
+        Move solved = solveAnalytically(heights);
+        if (solved != null) {
+            return solved;
+        }
+
+        // Table de finales exacte : fichier projeté en mémoire ou résolution rétrograde
+        Tablebase tablebase = Tablebases.forBoard(model.getWidth(), model.getHeight());
+        if (tablebase != null) {
+            return findOptimalMove(tablebase, heights);
         } else {
             // Sinon, utiliser la stratégie intermédiaire
-            return makeIntermediateMove();
+            return makeIntermediateMove(heights);
         }
     }
 
-    private Move findOptimalMove() {
-        // Implémentation de l'algorithme minimax pour trouver le coup optimal
-        // Pour simplifier, nous utiliserons une heuristique basée sur la parité
+    // Famille résolue (voir AnalyticSolver) : coup prouvé en O(largeur), avant toute table ou
+    // recherche. null si la position n'en fait pas partie.
+    private static Move solveAnalytically(int[] heights) {
+        int move = AnalyticSolver.findMove(heights);
+        if (move == AnalyticSolver.NONE) {
+            return null;
+        }
+        SOLVED.increment();
+        return Moves.toMove(Moves.withPlayer(move, 2));  // L'IA est toujours le joueur 2
+    }
 
-        List<Move> validMoves = getValidMoves();
+    private Move findOptimalMove(Tablebase tablebase, int[] heights) {
+        // La table gagnant/perdant est construite une seule fois par taille de gaufre :
+        // il suffit ensuite de chercher un coup qui laisse une position perdante.
+        return tablebase.findMove(heights, 2);  // L'IA est toujours le joueur 2
+    }
 
-        // Si une seule case reste (la case empoisonnée), on est obligé de la jouer
-        if (validMoves.size() == 1) {
-            return validMoves.get(0);
+    private Move makeExpertMove(int[] heights) {
+        Move solved = solveAnalytically(heights);
+        if (solved != null) {
+            return solved;
         }
 
-        // Si on peut jouer le coup (1,0) ou (0,1), c'est souvent un bon choix
-        for (Move move : validMoves) {
-            if ((move.getX() == 1 && move.getY() == 0) || (move.getX() == 0 && move.getY() == 1)) {
-                return move;
-            }
+        // Une table exacte, si elle existe, vaut mieux que n'importe quelle recherche
+        Tablebase tablebase = Tablebases.forBoard(model.getWidth(), model.getHeight());
+        if (tablebase != null) {
+            return findOptimalMove(tablebase, heights);
         }
 
-        // Sinon, essayer de laisser une position symétrique à l'adversaire
-        for (Move move : validMoves) {
-            if (move.getX() != 0 && move.getY() != 0 && move.getX() == move.getY()) {
-                return move;
-            }
+        int move = getSearcher().search(heights, thinkMillis);
+        lastWork = searcher.getNodes();
+        NODES.add(lastWork);
+        return Moves.toMove(Moves.withPlayer(move, 2));  // L'IA est toujours le joueur 2
+    }
+
+    private Move makeMonteCarloMove(int[] heights) {
+        Move solved = solveAnalytically(heights);
+        if (solved != null) {
+            return solved;
+        }
+
+        Tablebase tablebase = Tablebases.forBoard(model.getWidth(), model.getHeight());
+        if (tablebase != null) {
+            return findOptimalMove(tablebase, heights);
         }
 
-        // Si aucune stratégie spécifique n'est applicable, revenir à la stratégie intermédiaire
-        return makeIntermediateMove();
+        int move = getMonteCarloSearcher().search(heights, thinkMillis);
+        lastWork = monteCarlo.getLastPlayouts();
+        PLAYOUTS.add(lastWork);
+        return Moves.toMove(Moves.withPlayer(move, 2));  // L'IA est toujours le joueur 2
     }
 
-    private boolean isWinningMove(Move move) {
-        // Vérifier si ce coup laisse uniquement la case empoisonnée à l'adversaire
-        boolean[][] waffle = model.getWaffle();
-        int width = model.getWidth();
-        int height = model.getHeight();
+    // Recherche Monte-Carlo de cette partie, avec son débit de simulations
+    public MonteCarloSearcher getMonteCarloSearcher() {
+        if (monteCarlo == null) {
+            monteCarlo = new MonteCarloSearcher(model.getWidth(), model.getHeight(), searchThreads, random.nextLong());
+        }
+        return monteCarlo;
+    }
 
-        // Compter les cases restantes si on joue ce coup
-        int remainingCells = 0;
+    // Recherche alpha-bêta de cette partie, avec ses compteurs (nœuds, taux de succès de la table)
+    public AlphaBetaSearcher getSearcher() {
+        if (searcher == null) {
+            searcher = new AlphaBetaSearcher(model.getWidth(), model.getHeight(), searchMemoryMegabytes);
+        }
+        return searcher;
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (waffle[y][x] && (y < move.getY() || x < move.getX())) {
-                    remainingCells++;
-                }
-            }
+    public void setSearchMemoryMegabytes(int megabytes) {
+        if (megabytes > 0 && megabytes != searchMemoryMegabytes) {
+            searchMemoryMegabytes = megabytes;
+            searcher = null;  // La table de transposition sera réallouée à la prochaine recherche
         }
+    }
 
-        // Si seule la case (0,0) reste, c'est un coup gagnant
-        return remainingCells == 1 && waffle[0][0];
+    // Temps de réflexion des niveaux 4 et 5
+    public long getThinkMillis() {
+        return thinkMillis;
     }
 
-    private List<Move> getValidMoves() {
-        List<Move> validMoves = new ArrayList<>();
-        boolean[][] waffle = model.getWaffle();
-        int width = model.getWidth();
-        int height = model.getHeight();
+    public void setThinkMillis(long millis) {
+        if (millis > 0) {
+            thinkMillis = millis;
+        }
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (waffle[y][x]) {
-                    validMoves.add(new Move(x, y, 2));  // L'IA est toujours le joueur 2
-                }
-            }
+    // Nombre de fils de la recherche Monte-Carlo (1 quand plusieurs parties tournent en parallèle)
+    public void setSearchThreads(int threads) {
+        if (threads > 0 && threads != searchThreads) {
+            searchThreads = threads;
+            monteCarlo = null;
         }
+    }
+
+    // Repart d'une nouvelle graine, y compris pour la recherche Monte-Carlo
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+        if (monteCarlo != null) {
+            monteCarlo.setSeed(random.nextLong());
+        }
+    }
 
-        return validMoves;
+    private boolean isWinningMove(int move, int[] heights) {
+        // Vérifier si ce coup laisse uniquement la case empoisonnée à l'adversaire.
+        // Seuls (1,0) et (0,1) le peuvent : (1,0) si la colonne 0 se réduit déjà au poison,
+        // (0,1) si la ligne 0 s'y réduit.
+        int x = Moves.x(move);
+        int y = Moves.y(move);
+        if (x == 1 && y == 0) {
+            return heights[0] == 1;
+        }
+        if (x == 0 && y == 1) {
+            return heights.length == 1 || heights[1] == 0;
+        }
+        return false;
+    }
+
+    // Remplit le tampon réutilisable avec les coups possibles et retourne leur nombre
+    private int generateMoves(int[] heights) {
+        int cells = 0;
+        for (int x = 0; x < heights.length && heights[x] > 0; x++) {
+            cells += heights[x];
+        }
+        // Un coup par case restante : le tampon suit la position, pas la gaufre
+        if (moveBuffer == null || moveBuffer.length < cells) {
+            moveBuffer = new int[cells];
+        }
+        return MoveGenerator.generate(heights, 2, moveBuffer);  // L'IA est toujours le joueur 2
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,340 @@
+package Model;
+
+public final class AlphaBetaSearcher {
+    public static final int DEFAULT_MEMORY_MB = 64;
+
+    // Score du point de vue du joueur au trait : une victoire proche vaut plus qu'une lointaine
+    private static final int MATE = 1_000_000;
+    private static final int MATE_BOUND = MATE - 10_000;
+    private static final int INFINITY = MATE + 1;
+    private static final int MAX_DEPTH = 64;
+    private static final int KILLERS = 2;
+
+    private final int width;
+    private final int height;
+    private final TranspositionTable table;
+
+    // Table de finales utilisée aux feuilles dès que l'escalier y tient
+    private final Tablebase probe;
+    private final int probeWidth;
+    private final int probeHeight;
+
+    // Escalier courant, modifié en place pendant la recherche. La clé de son transposé (voir
+    // Transpose) est tenue à jour avec la sienne : la table de transposition range les deux
+    // orientations sous la même clé.
+    private final int[] heights;
+    private int cells;
+    private long key;
+    private long transposedKey;
+    private final int[] undoStack;
+    private int undoTop;
+
+    // Ordonnancement des coups : historique et coups « killer » par profondeur
+    private final int[] history;
+    private final int[][] killers;
+    private final int[][] moveBuffers;
+    private final int[][] scoreBuffers;
+    private int moveCount;
+
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private long probeHits;
+    private int completedDepth;
+    private int bestScore;
+
+    public AlphaBetaSearcher(int width, int height, int memoryMegabytes) {
+        this.width = width;
+        this.height = height;
+        this.table = new TranspositionTable(memoryMegabytes);
+
+        this.probe = Tablebases.forProbing(width, height);
+        this.probeWidth = probe.getWidth();
+        this.probeHeight = probe.getHeight();
+
+        this.heights = new int[width];
+        this.undoStack = new int[(width + 1) * (MAX_DEPTH + 1)];
+        this.history = new int[width * height];
+        this.killers = new int[MAX_DEPTH + 1][KILLERS];
+        this.moveBuffers = new int[MAX_DEPTH + 1][];
+        this.scoreBuffers = new int[MAX_DEPTH + 1][];
+    }
+
+    // Recherche itérative en profondeur jusqu'à épuisement du temps ou preuve du résultat.
+    // Retourne le coup codé (voir Moves), sans joueur.
+    public int search(int[] position, long thinkMillis) {
+        System.arraycopy(position, 0, heights, 0, width);
+        cells = 0;
+        for (int x = 0; x < width; x++) {
+            cells += heights[x];
+        }
+        key = PositionHash.of(heights);
+        transposedKey = Transpose.key(heights);
+
+        deadline = System.currentTimeMillis() + thinkMillis;
+        aborted = false;
+        nodes = 0;
+        probeHits = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        table.newSearch();
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+
+        int[] rootMoves = generateMoves(0);
+        int rootCount = moveCount;
+        if (rootCount == 1) {
+            return rootMoves[0];
+        }
+        int bestMove = rootMoves[0];
+
+        for (int depth = 1; depth <= MAX_DEPTH && depth <= cells; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = -1;
+            for (int i = 0; i < rootCount; i++) {
+                int move = rootMoves[i];
+                play(move);
+                int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+                undo(move);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = i;
+                }
+            }
+            if (aborted || iterationBest < 0) {
+                break;
+            }
+
+            // Le meilleur coup de l'itération passe en tête de la suivante
+            bestMove = rootMoves[iterationBest];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, iterationBest);
+            rootMoves[0] = bestMove;
+            completedDepth = depth;
+            bestScore = alpha;
+
+            if (Math.abs(alpha) >= MATE_BOUND) {
+                break;  // Résultat prouvé
+            }
+        }
+
+        if (bestScore <= -MATE_BOUND) {
+            // Position perdue : manger une seule case pour faire durer la partie
+            int x = width - 1;
+            while (heights[x] == 0) {
+                x--;
+            }
+            return Moves.pack(x, heights[x] - 1, 0);
+        }
+        return bestMove;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((nodes & 0xFFF) == 0 && (System.currentTimeMillis() >= deadline
+                || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        // Seule la case empoisonnée reste : le joueur au trait a perdu
+        if (cells == 1) {
+            return -(MATE - ply);
+        }
+        if (probe != null && heights[0] <= probeHeight && (probeWidth == width || heights[probeWidth] == 0)) {
+            probeHits++;
+            return probe.isWinning(heights) ? MATE - ply : -(MATE - ply);
+        }
+        if (depth == 0) {
+            return 0;  // Position inconnue à cet horizon
+        }
+
+        int originalAlpha = alpha;
+        int ttMove = -1;
+        boolean transposed = !Transpose.isCanonical(key, transposedKey);
+        long canonicalKey = Transpose.canonicalKey(key, transposedKey);
+        int slot = table.find(canonicalKey);
+        if (slot >= 0) {
+            // Le coup est rangé dans l'orientation canonique
+            ttMove = transposed ? Transpose.move(table.move(slot)) : table.move(slot);
+            int score = fromTable(table.score(slot), ply);
+            int type = table.type(slot);
+            boolean proven = (type != TranspositionTable.UPPER && score >= MATE_BOUND)
+                    || (type != TranspositionTable.LOWER && score <= -MATE_BOUND);
+            if (table.depth(slot) >= depth || proven) {
+                if (type == TranspositionTable.EXACT
+                        || (type == TranspositionTable.LOWER && score >= beta)
+                        || (type == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = generateMoves(ply);
+        int count = moveCount;
+        int[] scores = scoreBuffers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == ttMove) {
+                scores[i] = 1 << 30;
+            } else if (move == killers[ply][0]) {
+                scores[i] = 1 << 29;
+            } else if (move == killers[ply][1]) {
+                scores[i] = 1 << 28;
+            } else {
+                scores[i] = history[Moves.y(move) * width + Moves.x(move)];
+            }
+        }
+
+        int best = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            // Sélection du meilleur coup restant, sans trier toute la liste
+            int pick = i;
+            for (int j = i + 1; j < count; j++) {
+                if (scores[j] > scores[pick]) {
+                    pick = j;
+                }
+            }
+            int move = moves[pick];
+            moves[pick] = moves[i];
+            moves[i] = move;
+            scores[pick] = scores[i];
+
+            play(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            undo(move);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (killers[ply][0] != move) {
+                            killers[ply][1] = killers[ply][0];
+                            killers[ply][0] = move;
+                        }
+                        history[Moves.y(move) * width + Moves.x(move)] += depth * depth;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int type = (best <= originalAlpha) ? TranspositionTable.UPPER
+                : (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(canonicalKey, transposed ? Transpose.move(bestMove) : bestMove, depth, type, toTable(best, ply));
+        return best;
+    }
+
+    // Les scores de victoire sont stockés relativement au nœud, pas à la racine
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // Tous les coups sauf la case empoisonnée, qui n'est jouée que si elle reste seule.
+    // Un coup par case restante : les tampons suivent la position, pas la gaufre.
+    private int[] generateMoves(int ply) {
+        if (moveBuffers[ply] == null || moveBuffers[ply].length < cells) {
+            moveBuffers[ply] = new int[cells];
+            scoreBuffers[ply] = new int[cells];
+        }
+        int[] moves = moveBuffers[ply];
+        int count = MoveGenerator.generate(heights, 0, moves);
+        // Le poison est toujours le dernier coup généré
+        moveCount = (count > 1) ? count - 1 : count;
+        return moves;
+    }
+
+    private void play(int move) {
+        int x = Moves.x(move);
+        int y = Moves.y(move);
+        int changed = 0;
+        for (int i = x; i < width && heights[i] > y; i++) {
+            undoStack[undoTop++] = heights[i];
+            cells -= heights[i] - y;
+            key ^= PositionHash.change(i, heights[i], y);
+            transposedKey ^= rowsChange(i, x, y);
+            heights[i] = y;
+            changed++;
+        }
+        undoStack[undoTop++] = changed;
+    }
+
+    // Variation de la clé du transposé quand le coup (x, y) entame la colonne i, les colonnes
+    // suivantes n'étant pas encore modifiées : les lignes dont la colonne i est la dernière
+    // case passent de la longueur i + 1 à la longueur x. Involutive, donc valable pour undo.
+    private long rowsChange(int i, int x, int y) {
+        int end = heights[i];
+        int start = (i + 1 < width) ? Math.max(y, heights[i + 1]) : y;
+        long change = 0L;
+        for (int j = start; j < end; j++) {
+            change ^= PositionHash.change(j, i + 1, x);
+        }
+        return change;
+    }
+
+    private void undo(int move) {
+        int x = Moves.x(move);
+        int y = Moves.y(move);
+        int changed = undoStack[--undoTop];
+        // De droite à gauche : les colonnes suivantes ont déjà retrouvé leur hauteur (voir rowsChange)
+        for (int i = x + changed - 1; i >= x; i--) {
+            int previous = undoStack[--undoTop];
+            cells += previous - heights[i];
+            key ^= PositionHash.change(i, heights[i], previous);
+            heights[i] = previous;
+            transposedKey ^= rowsChange(i, x, y);
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTablebaseHits() {
+        return probeHits;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    // Vrai si la dernière recherche a prouvé le résultat de la position
+    public boolean isProven() {
+        return Math.abs(bestScore) >= MATE_BOUND;
+    }
+
+    public boolean isWinning() {
+        return bestScore >= MATE_BOUND;
+    }
+}
@@ -0,0 +1,109 @@
+package Model;
+
+public final class AnalyticSolver {
+    // Familles de positions dont la stratégie gagnante est connue, reconnues en une passe
+    // sur les colonnes (O(largeur)) : le coup prouvé est immédiat, sans table ni recherche.
+    //   L (plus que la ligne 0 et la colonne 0, dont ligne ou colonne seules) : deux tas de
+    //     Nim, les bras de part et d'autre du poison ; perdant si les bras sont égaux,
+    //     sinon on raccourcit le plus long.
+    //   Deux lignes : perdant si la ligne 0 dépasse la ligne 1 d'exactement une case,
+    //     sinon on rétablit cet écart. Deux colonnes : la même chose, transposée.
+    //   Contour carré (autant de lignes que de colonnes, case (1,1) présente, donc toute
+    //     gaufre carrée) : prendre (1,1) laisse un L aux bras égaux, puis on imite l'adversaire.
+    // Les coups sont codés comme dans Moves, sans joueur.
+    public static final int NONE = -1;  // position hors des familles reconnues
+
+    private AnalyticSolver() {
+    }
+
+    // Coup gagnant prouvé ; dans une position perdante d'une famille reconnue, le coup qui fait
+    // durer la partie (comme Tablebase.findMove). NONE hors des familles, ou gaufre vide.
+    public static int findMove(int[] heights) {
+        int columns = columns(heights);
+        if (columns == 0) {
+            return NONE;
+        }
+        int rows = heights[0];
+        int second = (columns > 1) ? heights[1] : 0;
+
+        if (second <= 1) {
+            // L : bras vertical rows - 1, bras horizontal columns - 1
+            if (rows - 1 > columns - 1) {
+                return Moves.pack(0, columns, 0);
+            }
+            if (columns - 1 > rows - 1) {
+                return Moves.pack(rows, 0, 0);
+            }
+            return delay(heights, columns);
+        }
+        if (columns == 2) {
+            // Deux colonnes de hauteurs rows >= second >= 2
+            if (rows > second + 1) {
+                return Moves.pack(0, second + 1, 0);
+            }
+            if (rows == second) {
+                return Moves.pack(1, second - 1, 0);
+            }
+            return delay(heights, columns);
+        }
+        if (rows == 2) {
+            // Deux lignes : longueur de la ligne 1
+            int top = 0;
+            while (top < columns && heights[top] == 2) {
+                top++;
+            }
+            if (columns > top + 1) {
+                return Moves.pack(top + 1, 0, 0);
+            }
+            if (columns == top) {
+                return Moves.pack(columns - 1, 1, 0);
+            }
+            return delay(heights, columns);
+        }
+        if (rows == columns) {
+            return Moves.pack(1, 1, 0);
+        }
+        return NONE;
+    }
+
+    // Hint.WINNING ou Hint.LOSING pour le joueur au trait, Hint.UNKNOWN hors des familles
+    public static int evaluate(int[] heights) {
+        int columns = columns(heights);
+        if (columns == 0) {
+            return Hint.WINNING;  // l'adversaire vient de manger le poison
+        }
+        int rows = heights[0];
+        int second = (columns > 1) ? heights[1] : 0;
+        boolean losing;
+        if (second <= 1) {
+            losing = rows == columns;
+        } else if (columns == 2) {
+            losing = rows == second + 1;
+        } else if (rows == 2) {
+            int top = 0;
+            while (top < columns && heights[top] == 2) {
+                top++;
+            }
+            losing = columns == top + 1;
+        } else if (rows == columns) {
+            losing = false;
+        } else {
+            return Hint.UNKNOWN;
+        }
+        return losing ? Hint.LOSING : Hint.WINNING;
+    }
+
+    // Nombre de colonnes non vides (les hauteurs ne croissent jamais)
+    private static int columns(int[] heights) {
+        int columns = 0;
+        while (columns < heights.length && heights[columns] > 0) {
+            columns++;
+        }
+        return columns;
+    }
+
+    // Position perdante : manger la case du haut de la dernière colonne
+    private static int delay(int[] heights, int columns) {
+        return Moves.pack(columns - 1, heights[columns - 1] - 1, 0);
+    }
+}
@@ -0,0 +1,256 @@
+package Model;
+
+import Model.Legacy.LegacySave;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+public final class GameFile {
+    // Format d'une partie sauvegardée (.waf), big-endian :
+    //   magic "WAFL" (int) | version (short) | largeur (int) | hauteur (int)
+    //   niveau de l'IA (octet) | IA active (octet) | indices restants joueur 1, joueur 2 (octets)
+    //   nombre de coups (varint) | indice du coup courant + 1 (varint)
+    //   escalier après le coup courant : largeur + hauteur bits (voir writeStaircase)
+    //   coups : y * largeur + x (varint chacun), joueurs déduits de l'alternance
+    //   CRC32C de tout ce qui précède (int)
+    // Les fichiers commençant par 0xACED sont d'anciennes sauvegardes par sérialisation Java.
+    public static final int MAGIC = 0x5741464C;  // "WAFL"
+    public static final short VERSION = 1;
+    public static final String EXTENSION = ".waf";
+
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 4 + 4;
+    private static final int MAX_VARINT_SIZE = 5;
+
+    private GameFile() {
+    }
+
+    public static void write(WaffleModel model, Path file) throws IOException {
+        write(encode(model), file);
+    }
+
+    // Écrit des octets produits par encode (la partie peut avoir changé depuis)
+    public static void write(ByteBuffer buffer, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        // Remplacement atomique : une sauvegarde interrompue ne détruit pas la précédente
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static WaffleModel read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Sauvegarde trop volumineuse : " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Sauvegarde tronquée : " + file);
+                }
+            }
+            buffer.flip();
+            return decode(buffer);
+        }
+    }
+
+    // Partie -> octets du fichier, prêts à être écrits (position 0, limite à la fin)
+    public static ByteBuffer encode(WaffleModel model) {
+        int width = model.getWidth();
+        int height = model.getHeight();
+        MoveHistory history = model.getHistory();
+        int count = history.size();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * MAX_VARINT_SIZE
+                + (width + height + 7) / 8 + count * MAX_VARINT_SIZE + 4);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(width)
+                .putInt(height)
+                .put((byte) model.getAILevel())
+                .put((byte) (model.isAIPlaying() ? 1 : 0))
+                .put((byte) model.getHintsRemaining(1))
+                .put((byte) model.getHintsRemaining(2));
+        putVarint(buffer, count);
+        putVarint(buffer, model.getCurrentMoveIndex() + 1);
+        writeStaircase(buffer, model.columnHeightsView(), height);
+        for (int i = 0; i < count; i++) {
+            int move = history.get(i);
+            putVarint(buffer, Moves.y(move) * width + Moves.x(move));
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    // Octets d'un fichier (.waf ou ancienne sauvegarde) -> partie, en une seule passe
+    public static WaffleModel decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() >= 2 && (buffer.getShort(buffer.position()) & 0xFFFF) == LegacySave.STREAM_MAGIC) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return fromLegacy(LegacySave.read(new ByteArrayInputStream(bytes)));
+        }
+
+        try {
+            int start = buffer.position();
+            if (buffer.remaining() < HEADER_SIZE + 4 || buffer.getInt() != MAGIC) {
+                throw new IOException("Ce fichier n'est pas une sauvegarde de partie");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Version de sauvegarde non supportée (" + version + ")");
+            }
+
+            // Somme de contrôle vérifiée avant d'interpréter le reste
+            int end = buffer.limit() - 4;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().position(start).limit(end));
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                throw new IOException("Sauvegarde corrompue (somme de contrôle invalide)");
+            }
+            buffer.limit(end);
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width < 1 || height < 1 || width > Moves.MAX_COORDINATE + 1 || height > Moves.MAX_COORDINATE + 1) {
+                throw new IOException("Dimensions invalides : " + width + "x" + height);
+            }
+            int aiLevel = buffer.get();
+            boolean aiPlaying = buffer.get() != 0;
+            int hints1 = buffer.get();
+            int hints2 = buffer.get();
+            int count = getVarint(buffer);
+            int index = getVarint(buffer) - 1;
+            if (count > buffer.remaining()) {
+                throw new IOException("Historique tronqué");
+            }
+            int[] heights = readStaircase(buffer, width, height);
+
+            int[] moves = new int[count];
+            for (int i = 0; i < count; i++) {
+                int cell = getVarint(buffer);
+                if (cell >= width * height) {
+                    throw new IOException("Coup hors de la gaufre : " + cell);
+                }
+                moves[i] = Moves.pack(cell % width, cell / width, 0);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Données inattendues en fin de sauvegarde");
+            }
+
+            WaffleModel model = new WaffleModel(width, height);
+            if (!model.restore(moves, count, index, heights)) {
+                throw new IOException("Historique de la sauvegarde incohérent");
+            }
+            model.setAILevel(aiLevel);
+            model.setAIPlaying(aiPlaying);
+            model.setHintsRemaining(1, hints1);
+            model.setHintsRemaining(2, hints2);
+            return model;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Sauvegarde tronquée ou invalide", e);
+        }
+    }
+
+    private static WaffleModel fromLegacy(LegacySave save) throws IOException {
+        int[] moves = save.getMoves();
+        WaffleModel model = new WaffleModel(save.getWidth(), save.getHeight());
+        if (!model.restore(moves, moves.length, save.getCurrentMoveIndex(), save.getColumnHeights())) {
+            throw new IOException("Historique de l'ancienne sauvegarde incohérent");
+        }
+        model.setAILevel(save.getAILevel());
+        model.setAIPlaying(save.isAIPlaying());
+        model.setHintsRemaining(1, save.getHintsRemaining(1));
+        model.setHintsRemaining(2, save.getHintsRemaining(2));
+        return model;
+    }
+
+    // L'escalier est le chemin qui sépare les cases restantes des cases mangées, du coin
+    // en bas à gauche au coin en haut à droite : pour chaque colonne, un bit 0 par ligne
+    // descendue depuis la colonne précédente puis un bit 1, et un 0 par ligne restante
+    // après la dernière colonne. Exactement largeur + hauteur bits.
+    private static void writeStaircase(ByteBuffer buffer, int[] heights, int height) {
+        int start = buffer.position();
+        int bytes = (heights.length + height + 7) / 8;
+        for (int i = 0; i < bytes; i++) {
+            buffer.put((byte) 0);
+        }
+
+        int bit = 0;
+        int previous = height;
+        for (int h : heights) {
+            bit += previous - h;
+            int at = start + (bit >>> 3);
+            buffer.put(at, (byte) (buffer.get(at) | 1 << (bit & 7)));
+            bit++;
+            previous = h;
+        }
+    }
+
+    private static int[] readStaircase(ByteBuffer buffer, int width, int height) throws IOException {
+        int bytes = (width + height + 7) / 8;
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Escalier tronqué");
+        }
+        int[] heights = new int[width];
+        int h = height;
+        int x = 0;
+        int start = buffer.position();
+        for (int i = 0; i < width + height && x < width; i++) {
+            if ((buffer.get(start + (i >>> 3)) & (1 << (i & 7))) != 0) {
+                heights[x++] = h;
+            } else if (--h < 0) {
+                throw new IOException("Escalier invalide");
+            }
+        }
+        if (x < width) {
+            throw new IOException("Escalier invalide");
+        }
+        buffer.position(start + bytes);
+        return heights;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Entier variable invalide");
+    }
+}
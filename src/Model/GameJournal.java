@@ -0,0 +1,350 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+public final class GameJournal {
+    // Sauvegarde automatique : un instantané de la partie (voir GameFile) et le journal des
+    // actions jouées depuis. Format du journal, big-endian :
+    //   en-tête de 16 octets : magic "WAFJ" | version | somme de contrôle de l'instantané | génération
+    //   puis des enregistrements de 8 octets :
+    //     argument (int) | type (octet) | 24 bits de CRC32C (génération, argument, type, numéro d'enregistrement)
+    // L'en-tête désigne l'instantané auquel s'appliquent les enregistrements : après un
+    // compactage interrompu, un journal qui ne correspond plus à l'instantané est ignoré.
+    // La génération, tirée au hasard à chaque instantané, entre dans la somme de chaque
+    // enregistrement : deux instantanés aux octets identiques n'acceptent pas les enregistrements
+    // l'un de l'autre.
+    // Un enregistrement à moitié écrit (arrêt brutal) a une somme fausse : la reprise s'arrête avant.
+    public static final String DIRECTORY_PROPERTY = "waffle.autosave";
+    public static final int MAGIC = 0x5741464A;  // "WAFJ"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 8;
+
+    // Nouvel instantané (et journal vidé) tous les COMPACTION_INTERVAL enregistrements
+    public static final int COMPACTION_INTERVAL = 1024;
+
+    private static final String SNAPSHOT_FILE = "autosave" + GameFile.EXTENSION;
+    private static final String JOURNAL_FILE = "autosave.journal";
+
+    // Types d'enregistrement
+    private static final byte MOVE = 1;      // argument : coup codé (voir Moves)
+    private static final byte UNDO = 2;
+    private static final byte REDO = 3;
+    private static final byte SEEK = 4;      // argument : indice du coup + 1
+    private static final byte SETTINGS = 5;  // argument : niveau de l'IA << 1 | IA active
+    private static final byte HINT = 6;      // argument : joueur
+
+    private static final Command CLOSE = new Command((byte) 0, 0, null);
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private final Path directory;
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // Côté EDT : partie suivie et enregistrements depuis le dernier instantané
+    private WaffleModel model;
+    private int recordsSinceSnapshot;
+
+    // Côté fil d'écriture
+    private FileChannel channel;
+    private int recordIndex;
+    private int generation;
+    private volatile boolean failed;
+
+    // Action à écrire, dans l'ordre où elle a été jouée : un enregistrement ou un instantané
+    private static final class Command {
+        final byte type;
+        final int argument;
+        final ByteBuffer snapshot;
+
+        Command(byte type, int argument, ByteBuffer snapshot) {
+            this.type = type;
+            this.argument = argument;
+            this.snapshot = snapshot;
+        }
+    }
+
+    // Sans répertoire (null), le journal ne fait rien
+    public GameJournal(Path directory) {
+        this.directory = directory;
+        if (directory == null) {
+            writer = null;
+            return;
+        }
+        writer = new Thread(this::run, "waffle-autosave");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Répertoire de la sauvegarde automatique : ~/.waffle par défaut, désactivée si la
+    // propriété vaut "none"
+    public static Path getDirectory() {
+        String property = System.getProperty(DIRECTORY_PROPERTY);
+        if ("none".equals(property)) {
+            return null;
+        }
+        return (property != null) ? Paths.get(property) : Paths.get(System.getProperty("user.home"), ".waffle");
+    }
+
+    // Dernière partie sauvegardée : l'instantané, puis les seules actions journalisées depuis.
+    // Retourne null s'il n'y en a pas ou si elle est illisible.
+    public static WaffleModel recover(Path directory) {
+        if (directory == null) {
+            return null;
+        }
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            WaffleModel model = GameFile.decode(bytes.duplicate());
+            int checksum = bytes.getInt(bytes.limit() - 4);
+
+            Path journal = directory.resolve(JOURNAL_FILE);
+            if (Files.isRegularFile(journal)) {
+                replay(model, journal, checksum);
+            }
+            return model;
+        } catch (IOException e) {
+            System.err.println("Sauvegarde automatique ignorée : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void replay(WaffleModel model, Path journal, int checksum) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journal));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt() != checksum) {
+            return;  // Journal d'un autre instantané : l'instantané contient déjà tout
+        }
+        int generation = buffer.getInt();
+        buffer.position(HEADER_SIZE);
+
+        CRC32C crc = new CRC32C();
+        for (int index = 0; buffer.remaining() >= RECORD_SIZE; index++) {
+            int argument = buffer.getInt();
+            byte type = buffer.get();
+            int sum = (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+            if (sum != recordChecksum(crc, generation, argument, type, index) || !apply(model, type, argument)) {
+                return;  // Fin du dernier groupe écrit en entier
+            }
+        }
+    }
+
+    private static boolean apply(WaffleModel model, byte type, int argument) {
+        return switch (type) {
+            case MOVE -> model.makeMove(Moves.x(argument), Moves.y(argument));
+            case UNDO -> model.undoMove();
+            case REDO -> model.redoMove();
+            case SEEK -> model.goToMove(argument - 1);
+            case SETTINGS -> {
+                model.setAILevel(argument >>> 1);
+                model.setAIPlaying((argument & 1) != 0);
+                yield true;
+            }
+            case HINT -> {
+                if (argument != 1 && argument != 2) {
+                    yield false;
+                }
+                model.setHintsRemaining(argument, model.getHintsRemaining(argument) - 1);
+                yield true;
+            }
+            default -> false;
+        };
+    }
+
+    private static int recordChecksum(CRC32C crc, int generation, int argument, byte type, int index) {
+        crc.reset();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(generation >>> shift);
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(argument >>> shift);
+        }
+        crc.update(type);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(index >>> shift);
+        }
+        return (int) crc.getValue() & 0xFFFFFF;
+    }
+
+    // Suivre une nouvelle partie (nouvelle partie, partie chargée ou reprise) : compactage immédiat
+    public void attach(WaffleModel model) {
+        this.model = model;
+        snapshot();
+    }
+
+    public void moveMade(int x, int y) {
+        record(MOVE, Moves.pack(x, y, 0));
+    }
+
+    public void undone() {
+        record(UNDO, 0);
+    }
+
+    public void redone() {
+        record(REDO, 0);
+    }
+
+    public void seeked(int index) {
+        record(SEEK, index + 1);
+    }
+
+    public void settingsChanged() {
+        if (model == null) {
+            return;
+        }
+        record(SETTINGS, model.getAILevel() << 1 | (model.isAIPlaying() ? 1 : 0));
+    }
+
+    public void hintUsed(int player) {
+        record(HINT, player);
+    }
+
+    // Ne bloque jamais : l'enregistrement est écrit plus tard par le fil d'écriture
+    private void record(byte type, int argument) {
+        if (writer == null || failed || model == null) {
+            return;
+        }
+        if (++recordsSinceSnapshot >= COMPACTION_INTERVAL) {
+            snapshot();  // l'instantané inclut déjà cette action
+        } else {
+            queue.add(new Command(type, argument, null));
+        }
+    }
+
+    private void snapshot() {
+        if (writer == null || failed) {
+            return;
+        }
+        // Encodage sur le fil appelant, pour figer l'état de la partie ; l'écriture est différée
+        recordsSinceSnapshot = 0;
+        queue.add(new Command((byte) 0, 0, GameFile.encode(model)));
+    }
+
+    // Écrit ce qui reste en attente, puis arrête le fil d'écriture (à la fermeture du jeu)
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        queue.add(CLOSE);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Validation groupée : tout ce qui s'est accumulé pendant l'écriture précédente part
+    // en une seule écriture suivie d'un seul force()
+    private void run() {
+        List<Command> batch = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 256);
+        CRC32C crc = new CRC32C();
+        try {
+            Files.createDirectories(directory);
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (Command command : batch) {
+                    if (command == CLOSE) {
+                        flush(records);
+                        closeChannel();
+                        return;
+                    }
+                    if (command.snapshot != null) {
+                        flush(records);
+                        writeSnapshot(command.snapshot);
+                        continue;
+                    }
+                    if (!records.hasRemaining()) {
+                        flush(records);
+                    }
+                    int sum = recordChecksum(crc, generation, command.argument, command.type, recordIndex++);
+                    records.putInt(command.argument)
+                            .put(command.type)
+                            .put((byte) (sum >>> 16))
+                            .put((byte) (sum >>> 8))
+                            .put((byte) sum);
+                }
+                flush(records);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Sauvegarde automatique désactivée : " + e.getMessage());
+        }
+        closeChannel();
+    }
+
+    private void flush(ByteBuffer records) throws IOException {
+        if (records.position() == 0) {
+            return;
+        }
+        records.flip();
+        if (channel != null) {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            channel.force(false);
+        }
+        records.clear();
+    }
+
+    // Compactage : nouvel instantané, puis journal vide qui le désigne. Chaque fichier est
+    // remplacé atomiquement ; un arrêt entre les deux laisse un journal périmé, ignoré à la reprise.
+    private void writeSnapshot(ByteBuffer snapshot) throws IOException {
+        closeChannel();
+        GameFile.write(snapshot.duplicate(), directory.resolve(SNAPSHOT_FILE));
+
+        Path journal = directory.resolve(JOURNAL_FILE);
+        Path tmp = journal.resolveSibling(JOURNAL_FILE + ".tmp");
+        int next = ThreadLocalRandom.current().nextInt();  // génération du nouvel instantané
+        try (FileChannel header = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(snapshot.getInt(snapshot.limit() - 4))
+                    .putInt(next)
+                    .flip();
+            while (bytes.hasRemaining()) {
+                header.write(bytes);
+            }
+            header.force(true);
+        }
+        Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        recordIndex = 0;
+        generation = next;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Rien à faire : tout ce qui devait l'être a été forcé sur le disque
+            }
+            channel = null;
+        }
+    }
+}
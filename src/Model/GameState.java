@@ -0,0 +1,138 @@
+package Model;
+
+import java.util.Arrays;
+
+public final class GameState {
+    // Photo immuable d'une partie, publiée par WaffleModel après chaque changement (coup,
+    // annulation, nouvelle partie...). Un fil de calcul, une sauvegarde ou un spectateur la
+    // lit sans verrou : elle ne change jamais, et la référence est publiée d'un seul coup
+    // (champ volatile), donc jamais à moitié mordue.
+    // Les hauteurs sont rangées par blocs de 64 colonnes, partagés d'une photo à la suivante :
+    // un coup ne recopie que les blocs des colonnes qu'il a entamées, quelle que soit la largeur.
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+
+    private final int width;
+    private final int height;
+    private final int[][] blocks;  // jamais modifiés après construction
+    private volatile int[] heights;  // hauteurs d'un seul tenant, construites à la demande
+    private final int currentPlayer;
+    private final int moveIndex;
+    private final int remainingCells;
+    private final long positionHash;
+    private final int winner;
+
+    // heights : hauteurs vivantes de la partie, dont seules les colonnes [from, to) ont changé
+    // depuis previous (toutes si previous est null ou d'une autre taille)
+    GameState(GameState previous, int width, int height, int[] heights, int from, int to, int currentPlayer,
+              int moveIndex, int remainingCells, long positionHash, int winner) {
+        this.width = width;
+        this.height = height;
+        this.blocks = share(previous, heights, from, to);
+        this.currentPlayer = currentPlayer;
+        this.moveIndex = moveIndex;
+        this.remainingCells = remainingCells;
+        this.positionHash = positionHash;
+        this.winner = winner;
+    }
+
+    private static int[][] share(GameState previous, int[] heights, int from, int to) {
+        int count = (heights.length + BLOCK - 1) >>> BLOCK_SHIFT;
+        int[][] blocks;
+        if (previous != null && previous.width == heights.length) {
+            blocks = previous.blocks.clone();
+        } else {
+            blocks = new int[count][];
+            from = 0;
+            to = heights.length;
+        }
+        for (int b = from >>> BLOCK_SHIFT; from < to && b <= (to - 1) >>> BLOCK_SHIFT; b++) {
+            int start = b << BLOCK_SHIFT;
+            blocks[b] = Arrays.copyOfRange(heights, start, Math.min(heights.length, start + BLOCK));
+        }
+        return blocks;
+    }
+
+    // Hauteurs d'un seul tenant, sans copie une fois construites, pour l'IA du même
+    // paquetage : ne pas modifier
+    int[] heightsView() {
+        int[] view = heights;
+        if (view == null) {
+            view = new int[width];
+            copyColumnHeights(view);
+            heights = view;  // deux fils peuvent la construire chacun : même contenu
+        }
+        return view;
+    }
+
+    private void copyColumnHeights(int[] into) {
+        for (int b = 0; b < blocks.length; b++) {
+            System.arraycopy(blocks[b], 0, into, b << BLOCK_SHIFT, blocks[b].length);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColumnHeight(int x) {
+        return blocks[x >>> BLOCK_SHIFT][x & (BLOCK - 1)];
+    }
+
+    // Copie des hauteurs de colonnes
+    public int[] getColumnHeights() {
+        int[] copy = new int[width];
+        copyColumnHeights(copy);
+        return copy;
+    }
+
+    public boolean isValidMove(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < getColumnHeight(x);
+    }
+
+    // Vue sous forme de grille (true = case présente), recalculée à chaque appel
+    public boolean[][] getWaffle() {
+        boolean[][] waffle = new boolean[height][width];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0, h = getColumnHeight(x); y < h; y++) {
+                waffle[y][x] = true;
+            }
+        }
+        return waffle;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    // Indice du dernier coup joué dans l'historique (-1 en début de partie)
+    public int getMoveIndex() {
+        return moveIndex;
+    }
+
+    public int getRemainingCells() {
+        return remainingCells;
+    }
+
+    public long getPositionHash() {
+        return positionHash;
+    }
+
+    public boolean isGameOver() {
+        return winner != 0;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    @Override
+    public String toString() {
+        return "GameState " + width + "x" + height + " " + Arrays.toString(getColumnHeights()) + ", joueur " + currentPlayer
+                + ", coup " + moveIndex + (winner != 0 ? ", gagnant " + winner : "");
+    }
+}
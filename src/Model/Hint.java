@@ -0,0 +1,40 @@
+package Model;
+
+public final class Hint {
+    // Évaluation de la position, du point de vue du joueur qui demande l'indice
+    public static final int UNKNOWN = 0;  // gaufre hors de portée des tables exactes
+    public static final int WINNING = 1;
+    public static final int LOSING = 2;
+
+    private final int x;
+    private final int y;
+    private final int evaluation;
+
+    public Hint(int x, int y, int evaluation) {
+        this.x = x;
+        this.y = y;
+        this.evaluation = evaluation;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getEvaluation() {
+        return evaluation;
+    }
+
+    @Override
+    public String toString() {
+        String value = switch (evaluation) {
+            case WINNING -> "winning";
+            case LOSING -> "losing";
+            default -> "unknown";
+        };
+        return "Hint (" + x + ", " + y + "), position " + value;
+    }
+}
@@ -0,0 +1,125 @@
+package Model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class HintService {
+    // Indices mémorisés par position : la même position revient souvent (annulations,
+    // rejeu de la chronologie, nouvelles parties sur la même gaufre), et un indice déjà
+    // calculé ne coûte alors qu'une recherche dans la table. Le cache est borné et évince
+    // la position utilisée le moins récemment ; il est partagé par toutes les parties.
+    // Seuls les indices prouvés (famille résolue ou table exacte) y entrent : un coup de la
+    // stratégie intermédiaire, tiré au hasard, est recalculé à chaque demande.
+    // Une position et sa transposée (voir Transpose) partagent la même entrée, rangée dans
+    // l'orientation canonique.
+    public static final String CAPACITY_PROPERTY = "waffle.hints.cache";
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final HintService SHARED =
+            new HintService(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    private final int capacity;
+    private final Map<Long, Hint> cache;
+
+    // Protégés par this
+    private long hits;
+    private long misses;
+
+    public HintService(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        // Ordre d'accès : l'entrée la plus ancienne est la moins récemment utilisée
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Hint> eldest) {
+                return size() > HintService.this.capacity;
+            }
+        };
+    }
+
+    // Cache commun à toutes les parties de la JVM
+    public static HintService shared() {
+        return SHARED;
+    }
+
+    public Hint hint(int width, int height, int[] heights, AIPlayer computer) {
+        return hint(width, height, PositionHash.of(heights), heights, computer);
+    }
+
+    // positionHash : clé de heights (voir WaffleModel.getPositionHash, tenue à jour coup par coup).
+    // Le calcul se fait hors du verrou : deux demandes simultanées de la même position
+    // calculent chacune l'indice, sans bloquer les autres.
+    public Hint hint(int width, int height, long positionHash, int[] heights, AIPlayer computer) {
+        long transposedHash = Transpose.key(heights);
+        boolean transposed = !Transpose.isCanonical(positionHash, transposedHash);
+        long key = key(width, height, Transpose.canonicalKey(positionHash, transposedHash));
+        synchronized (this) {
+            Hint hint = cache.get(key);
+            if (hint != null) {
+                hits++;
+                return transposed ? transpose(hint) : hint;
+            }
+            misses++;
+        }
+
+        Hint hint = compute(width, height, heights, computer);
+        if (hint != null && hint.getEvaluation() != Hint.UNKNOWN) {
+            synchronized (this) {
+                cache.put(key, transposed ? transpose(hint) : hint);
+            }
+        }
+        return hint;
+    }
+
+    private static Hint transpose(Hint hint) {
+        return new Hint(hint.getY(), hint.getX(), hint.getEvaluation());
+    }
+
+    // Appelé sur l'EDT : rien n'y est résolu ni chargé. Famille résolue (voir AnalyticSolver),
+    // sinon table déjà prête (Tablebases.ifReady, qui lance sinon sa préparation en tâche de
+    // fond), sinon coup de la stratégie intermédiaire et position non évaluée.
+    private static Hint compute(int width, int height, int[] heights, AIPlayer computer) {
+        int solved = AnalyticSolver.findMove(heights);
+        if (solved != AnalyticSolver.NONE) {
+            return new Hint(Moves.x(solved), Moves.y(solved), AnalyticSolver.evaluate(heights));
+        }
+        Tablebase tablebase = Tablebases.ifReady(width, height);
+        if (tablebase != null) {
+            Move move = tablebase.findMove(heights, 0);  // coup sans joueur, comme dans Moves
+            if (move == null) {
+                return null;
+            }
+            return new Hint(move.getX(), move.getY(), tablebase.isWinning(heights) ? Hint.WINNING : Hint.LOSING);
+        }
+        Move move = computer.makeMove(2, heights);  // stratégie intermédiaire, sans table ni recherche
+        return (move == null) ? null : new Hint(move.getX(), move.getY(), Hint.UNKNOWN);
+    }
+
+    // Les dimensions font partie de la clé : le coup conseillé est celui de la table de la
+    // gaufre. Dans l'ordre (petite, grande), comme pour les tables : la gaufre transposée aussi.
+    private static long key(int width, int height, long positionHash) {
+        long dimensions = PositionHash.columnKey(Math.min(width, height), Math.max(width, height));
+        return positionHash ^ Long.rotateLeft(dimensions, 29);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,8 @@
+package Model.Legacy;
+
+import java.io.Serializable;
+
+// Forme de Model.AIPlayer dans les anciennes sauvegardes : rien n'en est repris
+final class AIPlayer implements Serializable {
+    private static final long serialVersionUID = -7527965745277393480L;
+}
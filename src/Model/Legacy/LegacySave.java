@@ -0,0 +1,111 @@
+package Model.Legacy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+public final class LegacySave {
+    // Premiers octets d'un flux de sérialisation Java
+    public static final int STREAM_MAGIC = 0xACED;
+
+    // Seules les classes des anciennes sauvegardes sont acceptées
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=16;Model.Legacy.*;java.util.ArrayList;java.util.Random;java.lang.Object;!*");
+
+    private final int width;
+    private final int height;
+    private final int[] columnHeights;
+    private final int[] moves;  // coups codés (voir Model.Moves)
+    private final int currentMoveIndex;
+    private final boolean aiPlaying;
+    private final int aiLevel;
+    private final int[] hintsRemaining;
+
+    private LegacySave(WaffleModel model) {
+        width = model.width;
+        height = model.height;
+
+        // La gaufre était une grille [hauteur][largeur], toujours en escalier
+        columnHeights = new int[width];
+        for (int x = 0; x < width; x++) {
+            int h = 0;
+            while (h < height && model.waffle[h][x]) {
+                h++;
+            }
+            columnHeights[x] = h;
+        }
+
+        moves = new int[model.moveHistory.size()];
+        for (int i = 0; i < moves.length; i++) {
+            Move move = model.moveHistory.get(i);
+            moves[i] = Model.Moves.pack(move.x, move.y, move.player);
+        }
+        currentMoveIndex = model.currentMoveIndex;
+        aiPlaying = model.isAIPlaying;
+        aiLevel = model.aiLevel;
+        hintsRemaining = model.hintsRemaining.clone();
+    }
+
+    // Lit une partie écrite par ObjectOutputStream avec les anciennes classes du modèle
+    public static LegacySave read(InputStream in) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(in) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                return switch (desc.getName()) {
+                    case "Model.WaffleModel" -> WaffleModel.class;
+                    case "Model.AIPlayer" -> AIPlayer.class;
+                    case "Model.Move" -> Move.class;
+                    default -> super.resolveClass(desc);
+                };
+            }
+        }) {
+            ois.setObjectInputFilter(FILTER);
+            Object object = ois.readObject();
+            if (!(object instanceof WaffleModel model)) {
+                throw new InvalidClassException("Ce fichier n'est pas une ancienne sauvegarde de partie");
+            }
+            if (model.waffle == null || model.moveHistory == null || model.hintsRemaining == null
+                    || model.waffle.length != model.height || model.hintsRemaining.length != 2) {
+                throw new InvalidClassException("Ancienne sauvegarde incomplète");
+            }
+            return new LegacySave(model);
+        } catch (ClassNotFoundException | ClassCastException | IndexOutOfBoundsException e) {
+            throw new IOException("Ancienne sauvegarde illisible : " + e.getMessage(), e);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getColumnHeights() {
+        return columnHeights;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public int getCurrentMoveIndex() {
+        return currentMoveIndex;
+    }
+
+    public boolean isAIPlaying() {
+        return aiPlaying;
+    }
+
+    public int getAILevel() {
+        return aiLevel;
+    }
+
+    public int getHintsRemaining(int player) {
+        return hintsRemaining[player - 1];
+    }
+}
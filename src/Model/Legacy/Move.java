@@ -0,0 +1,12 @@
+package Model.Legacy;
+
+import java.io.Serializable;
+
+// Forme de Model.Move dans les anciennes sauvegardes
+final class Move implements Serializable {
+    private static final long serialVersionUID = 1999625156559702737L;
+
+    int x;
+    int y;
+    int player;
+}
@@ -0,0 +1,20 @@
+package Model.Legacy;
+
+import java.io.Serializable;
+import java.util.List;
+
+// Forme de Model.WaffleModel dans les sauvegardes par sérialisation Java (avant le format .waf).
+// Seuls les champs utiles à l'import sont déclarés : les autres sont lus puis ignorés.
+final class WaffleModel implements Serializable {
+    private static final long serialVersionUID = -9206184920530571267L;
+
+    boolean[][] waffle;
+    int width;
+    int height;
+    @SuppressWarnings("serial")  // type fixé par les anciennes sauvegardes (une ArrayList en pratique)
+    List<Move> moveHistory;
+    int currentMoveIndex;
+    boolean isAIPlaying;
+    int aiLevel;
+    int[] hintsRemaining;
+}
@@ -0,0 +1,135 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedTablebase extends Tablebase {
+    // Format du fichier (.wtb) :
+    //   en-tête de 32 octets, big-endian :
+    //     magic "WAFT" | version (int) | largeur (int) | hauteur (int) | nombre d'états (long) | réservé
+    //   puis un bit par escalier : l'état de rang r est le bit (r & 7) de l'octet r >>> 3.
+    public static final int MAGIC = 0x57414654;  // "WAFT"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final String EXTENSION = ".wtb";
+
+    // Un MappedByteBuffer est limité à 2 Go : les grosses tables sont découpées
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final MappedByteBuffer[] chunks;
+
+    private MappedTablebase(StaircaseRanker ranker, MappedByteBuffer[] chunks) {
+        super(ranker);
+        this.chunks = chunks;
+    }
+
+    // Le projeté en lecture seule est partagé via le cache de pages du système :
+    // plusieurs parties (ou processus) ouvrant le même fichier ne le copient pas.
+    public static MappedTablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("En-tête de table tronqué : " + file);
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Ce fichier n'est pas une table de finales : " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de table non supportée (" + version + ") : " + file);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            long states = header.getLong();
+
+            StaircaseRanker ranker = new StaircaseRanker(width, height);
+            long bytes = dataBytes(states);
+            if (states != ranker.size() || channel.size() < HEADER_SIZE + bytes) {
+                throw new IOException("Table incohérente avec ses dimensions : " + file);
+            }
+
+            int count = (int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                long length = Math.min(bytes - offset, 1L << CHUNK_SHIFT);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + offset, length);
+            }
+            // Le projeté reste valide après la fermeture du canal
+            return new MappedTablebase(ranker, chunks);
+        }
+    }
+
+    public static void write(RetrogradeSolver solver, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(solver.getWidth())
+                    .putInt(solver.getHeight())
+                    .putLong(solver.size());
+            header.rewind();
+            writeFully(channel, header);
+
+            // Les mots sont écrits en little-endian : l'octet r >>> 3 contient alors le bit r
+            long[] words = solver.words();
+            long bytes = dataBytes(solver.size());
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (long word : words) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+                buffer.putLong(word);
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+            channel.truncate(HEADER_SIZE + bytes);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        // Remplacement atomique : un lecteur ne voit jamais de table à moitié écrite
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long dataBytes(long states) {
+        return (states + 7) >>> 3;
+    }
+
+    public static String fileName(int width, int height) {
+        return "waffle_" + width + "x" + height + EXTENSION;
+    }
+
+    @Override
+    protected boolean isWinningRank(long rank) {
+        long index = rank >>> 3;
+        byte b = chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+        return (b & (1 << (rank & 7))) != 0;
+    }
+}
@@ -0,0 +1,326 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class MonteCarloSearcher {
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    // Taille maximale d'un arbre : au-delà, on continue les simulations sans l'agrandir
+    private static final int INITIAL_NODES = 1 << 16;
+    private static final int MAX_NODES = 1 << 20;
+
+    // Fils de calcul partagés par toutes les parties (un arbre par fil pendant une recherche)
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "waffle-mcts");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final int width;
+    private final int height;
+    private final int threads;
+
+    // Table de finales : une simulation s'arrête dès que l'escalier y tient
+    private final Tablebase probe;
+    private final int probeWidth;
+    private final int probeHeight;
+
+    private long seed;
+    private long lastPlayouts;
+    private long lastElapsedNanos;
+
+    public MonteCarloSearcher(int width, int height) {
+        this(width, height, Runtime.getRuntime().availableProcessors(), System.nanoTime());
+    }
+
+    public MonteCarloSearcher(int width, int height, int threads, long seed) {
+        this.width = width;
+        this.height = height;
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+        this.probe = Tablebases.forProbing(width, height);
+        this.probeWidth = probe.getWidth();
+        this.probeHeight = probe.getHeight();
+    }
+
+    // Parallélisme à la racine : un arbre indépendant par fil, dont on additionne les
+    // visites des coups de la racine à l'expiration du budget. Retourne le coup codé (voir Moves).
+    public int search(int[] position, long budgetMillis) {
+        int[] heights = Arrays.copyOf(position, width);
+        int cells = 0;
+        for (int h : heights) {
+            cells += h;
+        }
+        // Seule la case empoisonnée, ou un seul coup possible
+        if (cells <= 2) {
+            return (cells == 2) ? (heights[1] > 0 ? Moves.pack(1, 0, 0) : Moves.pack(0, 1, 0)) : 0;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1_000_000L;
+        List<Tree> trees = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            trees.add(new Tree(heights, cells, deadline, seed += 0x9E3779B97F4A7C15L));
+        }
+
+        // Visites par coup de la racine : seuls les fils développés y figurent, pas toute la gaufre
+        Map<Integer, Long> visits = new HashMap<>();
+        long playouts;
+        if (threads == 1) {
+            // Un seul arbre : sur le fil appelant, qui reste le seul à calculer (pool borné du
+            // serveur, tournois) au lieu d'attendre un fil de WORKERS
+            Tree tree = trees.get(0).call();
+            tree.addRootVisits(visits);
+            playouts = tree.playouts;
+        } else {
+            playouts = searchInParallel(trees, visits);
+        }
+        lastPlayouts = playouts;
+        lastElapsedNanos = System.nanoTime() - start;
+
+        // Le coup le plus visité est le plus robuste
+        int best = -1;
+        long bestVisits = 0;
+        for (Map.Entry<Integer, Long> entry : visits.entrySet()) {
+            if (entry.getValue() > bestVisits) {
+                best = entry.getKey();
+                bestVisits = entry.getValue();
+            }
+        }
+        if (best < 0) {
+            // Aucune simulation terminée : manger une seule case
+            int x = width - 1;
+            while (heights[x] == 0) {
+                x--;
+            }
+            return Moves.pack(x, heights[x] - 1, 0);
+        }
+        return best;
+    }
+
+    // Un arbre par fil de WORKERS ; retourne le nombre total de simulations
+    private static long searchInParallel(List<Tree> trees, Map<Integer, Long> visits) {
+        long playouts = 0;
+        List<Future<Tree>> results = new ArrayList<>();
+        try {
+            for (Tree tree : trees) {
+                results.add(WORKERS.submit(tree));
+            }
+            for (Future<Tree> result : results) {
+                Tree tree = result.get();
+                tree.addRootVisits(visits);
+                playouts += tree.playouts;
+            }
+        } catch (InterruptedException e) {
+            // Recherche annulée : on rend la main avec ce qu'on a
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<Tree> result : results) {
+                result.cancel(true);
+            }
+        }
+        return playouts;
+    }
+
+    private final class Tree implements Callable<Tree> {
+        private final int[] rootHeights;
+        private final int rootCells;
+        private final long deadline;
+        private long random;
+
+        // Position courante, rejouée depuis la racine à chaque itération
+        private final int[] heights;
+        private int cells;
+
+        // Nœuds en tableaux : fils chaînés, développés un par un
+        private int[] move = new int[INITIAL_NODES];
+        private int[] firstChild = new int[INITIAL_NODES];
+        private int[] nextSibling = new int[INITIAL_NODES];
+        private int[] expanded = new int[INITIAL_NODES];
+        private int[] visits = new int[INITIAL_NODES];
+        private double[] wins = new double[INITIAL_NODES];
+        private int nodeCount;
+
+        private final int[] path;
+        private long playouts;
+
+        Tree(int[] heights, int cells, long deadline, long seed) {
+            this.rootHeights = heights;
+            this.rootCells = cells;
+            this.deadline = deadline;
+            this.random = (seed == 0) ? 1 : seed;
+            this.heights = new int[width];
+            this.path = new int[cells + 1];
+            newNode(0);
+        }
+
+        @Override
+        public Tree call() {
+            while (true) {
+                // Contrôle du temps et de l'annulation toutes les 64 simulations
+                if ((playouts & 63) == 0
+                        && (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted())) {
+                    return this;
+                }
+                iterate();
+                playouts++;
+            }
+        }
+
+        private void iterate() {
+            System.arraycopy(rootHeights, 0, heights, 0, width);
+            cells = rootCells;
+
+            // Sélection (UCT) puis développement d'un seul nouveau fils
+            int node = 0;
+            int depth = 0;
+            path[depth++] = node;
+            while (cells > 1) {
+                int total = cells - 1;  // Tous les coups sauf la case empoisonnée
+                if (expanded[node] < total) {
+                    if (nodeCount < MAX_NODES) {
+                        int m = kthMove(expanded[node]++);
+                        int child = newNode(m);
+                        nextSibling[child] = firstChild[node];
+                        firstChild[node] = child;
+                        apply(m);
+                        path[depth++] = child;
+                    }
+                    break;
+                }
+                node = selectChild(node);
+                apply(move[node]);
+                path[depth++] = node;
+            }
+
+            // Simulation : le joueur au trait de la feuille gagne-t-il ?
+            boolean leafMoverWins = playout();
+
+            // Rétro-propagation : chaque nœud compte les victoires du joueur qui y a mené
+            boolean credit = !leafMoverWins;
+            for (int i = depth - 1; i >= 0; i--) {
+                int n = path[i];
+                visits[n]++;
+                if (credit) {
+                    wins[n] += 1.0;
+                }
+                credit = !credit;
+            }
+        }
+
+        private int selectChild(int node) {
+            double logParent = Math.log(visits[node]);
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = firstChild[node]; child != 0; child = nextSibling[child]) {
+                double value = wins[child] / visits[child]
+                        + EXPLORATION * Math.sqrt(logParent / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        // Partie aléatoire jusqu'à ce qu'il ne reste que la case empoisonnée
+        private boolean playout() {
+            boolean moverIsLeaf = true;
+            while (true) {
+                if (cells == 1) {
+                    return !moverIsLeaf;
+                }
+                // Ne reste qu'une ligne ou qu'une colonne : on ne laisse que le poison et on gagne
+                if (heights[0] == 1 || width == 1 || heights[1] == 0) {
+                    return moverIsLeaf;
+                }
+                // Finale connue : résultat exact plutôt que la fin de la partie aléatoire
+                if (heights[0] <= probeHeight && (probeWidth == width || heights[probeWidth] == 0)) {
+                    return probe.isWinning(heights) == moverIsLeaf;
+                }
+                apply(kthMove(nextInt(cells - 1)));
+                moverIsLeaf = !moverIsLeaf;
+            }
+        }
+
+        // k-ième coup (hors case empoisonnée) dans l'ordre colonne par colonne
+        private int kthMove(int k) {
+            int index = k + 1;
+            int x = 0;
+            while (index >= heights[x]) {
+                index -= heights[x];
+                x++;
+            }
+            return Moves.pack(x, index, 0);
+        }
+
+        private void apply(int m) {
+            int x = Moves.x(m);
+            int y = Moves.y(m);
+            for (int i = x; i < width && heights[i] > y; i++) {
+                cells -= heights[i] - y;
+                heights[i] = y;
+            }
+        }
+
+        // xorshift64* : rapide et sans allocation
+        private int nextInt(int bound) {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            long r = (random * 0x2545F4914F6CDD1DL) >>> 33;
+            return (int) ((r * bound) >>> 31);
+        }
+
+        private int newNode(int m) {
+            if (nodeCount == move.length) {
+                int capacity = Math.min(MAX_NODES, move.length * 2);
+                move = Arrays.copyOf(move, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                expanded = Arrays.copyOf(expanded, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                wins = Arrays.copyOf(wins, capacity);
+            }
+            int node = nodeCount++;
+            move[node] = m;
+            return node;
+        }
+
+        void addRootVisits(Map<Integer, Long> total) {
+            for (int child = firstChild[0]; child != 0; child = nextSibling[child]) {
+                if (visits[child] > 0 && !Moves.isPoison(move[child])) {
+                    total.merge(Moves.withPlayer(move[child], 0), (long) visits[child], Long::sum);
+                }
+            }
+        }
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    public long getPlayoutsPerSecond() {
+        return (long) (lastPlayouts * 1e9 / Math.max(1, lastElapsedNanos));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
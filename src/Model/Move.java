@@ -3,6 +3,8 @@ package Model;
 import java.io.Serializable;
 
 public class Move implements Serializable {
+    private static final long serialVersionUID = 1999625156559702737L;
+
     private int x;
     private int y;
     private int player;
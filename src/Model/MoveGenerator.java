@@ -0,0 +1,43 @@
+package Model;
+
+public final class MoveGenerator {
+    private MoveGenerator() {
+    }
+
+    // Écrit tous les coups possibles dans buffer (au moins autant de places que de cases
+    // restantes) et retourne leur nombre. Aucune allocation.
+    // Ordre : d'abord les cases du bord de l'escalier (dernière case de leur colonne ou de
+    // leur ligne), puis les cases intérieures ; la case empoisonnée est toujours la dernière,
+    // il suffit donc d'ignorer le dernier coup pour l'exclure.
+    public static int generate(int[] heights, int player, int[] buffer) {
+        int count = 0;
+        int width = heights.length;
+
+        // Bord : la case (x, y) est la dernière de sa ligne si la colonne suivante est plus basse
+        for (int x = 0; x < width && heights[x] > 0; x++) {
+            int next = (x + 1 < width) ? heights[x + 1] : 0;
+            int from = Math.min(next, heights[x] - 1);
+            for (int y = heights[x] - 1; y >= from; y--) {
+                if (x != 0 || y != 0) {
+                    buffer[count++] = Moves.pack(x, y, player);
+                }
+            }
+        }
+
+        // Intérieur
+        for (int x = 0; x < width && heights[x] > 0; x++) {
+            int next = (x + 1 < width) ? heights[x + 1] : 0;
+            int to = Math.min(next, heights[x] - 1);
+            for (int y = to - 1; y >= 0; y--) {
+                if (x != 0 || y != 0) {
+                    buffer[count++] = Moves.pack(x, y, player);
+                }
+            }
+        }
+
+        if (width > 0 && heights[0] > 0) {
+            buffer[count++] = Moves.pack(0, 0, player);
+        }
+        return count;
+    }
+}
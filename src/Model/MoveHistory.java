@@ -0,0 +1,117 @@
+package Model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MoveHistory implements Serializable {
+    private static final long serialVersionUID = -3946659212156868412L;
+
+    // Un instantané complet des hauteurs de colonnes tous les SNAPSHOT_INTERVAL coups
+    public static final int SNAPSHOT_INTERVAL = 64;
+
+    private int[] moves = new int[16];  // coups codés (voir Moves)
+    private int size;
+
+    // Pour chaque coup, les hauteurs d'avant le coup des colonnes qu'il a entamées
+    // (colonnes x, x + 1, ...) : diffData[diffStart[i] .. diffStart[i + 1])
+    private int[] diffStart = new int[17];
+    private int[] diffData = new int[64];
+
+    // snapshots[k] = hauteurs après le coup d'indice (k + 1) * SNAPSHOT_INTERVAL - 1
+    private int[][] snapshots = new int[4][];
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    // Oublie les coups à partir de l'indice newSize (après une annulation suivie d'un nouveau coup)
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            Arrays.fill(snapshots, Math.min(newSize / SNAPSHOT_INTERVAL, snapshots.length), snapshots.length, null);
+            size = newSize;
+        }
+    }
+
+    // Enregistre un coup avant qu'il ne soit appliqué à heights
+    public void append(int move, int[] heights) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            diffStart = Arrays.copyOf(diffStart, size * 2 + 1);
+        }
+
+        int top = diffStart[size];
+        int x = Moves.x(move);
+        int y = Moves.y(move);
+        for (int i = x; i < heights.length && heights[i] > y; i++) {
+            if (top == diffData.length) {
+                diffData = Arrays.copyOf(diffData, top * 2);
+            }
+            diffData[top++] = heights[i];
+        }
+        moves[size] = move;
+        diffStart[++size] = top;
+    }
+
+    // Mémorise les hauteurs après le coup index si c'est un point de contrôle
+    public void checkpoint(int index, int[] heights) {
+        if ((index + 1) % SNAPSHOT_INTERVAL == 0) {
+            int slot = (index + 1) / SNAPSHOT_INTERVAL - 1;
+            if (slot >= snapshots.length) {
+                snapshots = Arrays.copyOf(snapshots, Math.max(slot + 1, snapshots.length * 2));
+            }
+            snapshots[slot] = heights.clone();
+        }
+    }
+
+    // Nombre de colonnes entamées par le coup index (à partir de sa colonne x)
+    public int changedColumns(int index) {
+        return diffStart[index + 1] - diffStart[index];
+    }
+
+    // Annule le coup index sur heights. Retourne le nombre de cases rendues.
+    public int undo(int index, int[] heights) {
+        int x = Moves.x(moves[index]);
+        int restored = 0;
+        for (int k = diffStart[index]; k < diffStart[index + 1]; k++) {
+            int column = x + k - diffStart[index];
+            restored += diffData[k] - heights[column];
+            heights[column] = diffData[k];
+        }
+        return restored;
+    }
+
+    // Copie dans heights le dernier point de contrôle situé au plus tard au coup index.
+    // Retourne l'indice du coup correspondant, ou -1 s'il n'y en a pas.
+    public int restoreCheckpoint(int index, int[] heights) {
+        int slot = (index + 1) / SNAPSHOT_INTERVAL - 1;
+        if (slot < 0 || snapshots[slot] == null) {
+            return -1;
+        }
+        System.arraycopy(snapshots[slot], 0, heights, 0, heights.length);
+        return (slot + 1) * SNAPSHOT_INTERVAL - 1;
+    }
+
+    // Vue en lecture seule, sans copie : les objets Move sont créés à la lecture
+    public List<Move> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Move get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return Moves.toMove(moves[index]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package Model;
+
+public final class Moves {
+    // Un coup tient dans un int : x (bits 0-14) | y (bits 15-29) | joueur (bits 30-31).
+    // Les coordonnées vont jusqu'à 32767, le joueur vaut 0 (inconnu), 1 ou 2.
+    public static final int MAX_COORDINATE = (1 << 15) - 1;
+
+    private Moves() {
+    }
+
+    public static int pack(int x, int y, int player) {
+        return x | y << 15 | player << 30;
+    }
+
+    public static int pack(Move move) {
+        return pack(move.getX(), move.getY(), move.getPlayer());
+    }
+
+    public static int x(int move) {
+        return move & MAX_COORDINATE;
+    }
+
+    public static int y(int move) {
+        return (move >>> 15) & MAX_COORDINATE;
+    }
+
+    public static int player(int move) {
+        return move >>> 30;
+    }
+
+    // Même case, autre joueur
+    public static int withPlayer(int move, int player) {
+        return (move & ~(3 << 30)) | player << 30;
+    }
+
+    public static boolean isPoison(int move) {
+        return (move & ~(3 << 30)) == 0;
+    }
+
+    public static Move toMove(int move) {
+        return new Move(x(move), y(move), player(move));
+    }
+}
@@ -0,0 +1,227 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class Ponderer {
+    // Réflexion anticipée : pendant que le joueur humain réfléchit, l'IA cherche déjà sa
+    // réponse à chacun de ses coups possibles, en commençant par celui qu'elle jouerait à sa
+    // place. Les réponses sont gardées par clé de position canonique (voir Transpose : une
+    // position et sa transposée n'en font qu'une, coup traduit à la lecture) : si le joueur
+    // joue un coup déjà étudié, la réponse est immédiate. Sinon, la recherche repart des
+    // tables déjà remplies (table de transposition du premier fil).
+    // La réponse au coup prédit a tout le temps de réflexion ; les autres se partagent le budget,
+    // pour couvrir tous les coups du joueur plutôt que les premiers générés.
+    public static final long DEFAULT_BUDGET_MILLIS = 30_000;
+    private static final long MIN_REPLY_MILLIS = 10;
+
+    private final WaffleModel model;
+    private final int width;
+    private final int height;
+    private final long budgetMillis;
+
+    // Un joueur (et donc une recherche) par fil ; le premier sert aussi aux coups non anticipés
+    private final AIPlayer[] players;
+    private final ExecutorService workers;
+
+    private final Map<Long, Integer> replies = new ConcurrentHashMap<>();
+    private int[] candidates = new int[0];  // coups du joueur, réutilisés d'une réflexion à l'autre (protégé par this)
+    private final List<Future<?>> tasks = new ArrayList<>();
+    // Numéro de la réflexion en cours (protégé par this en écriture) : une tâche d'une
+    // réflexion annulée qui obtient son joueur après coup le rend sans s'en servir
+    private volatile int batch;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong pondered = new AtomicLong();
+
+    public Ponderer(WaffleModel model, int threads, long budgetMillis) {
+        this.model = model;
+        this.width = model.getWidth();
+        this.height = model.getHeight();
+        this.budgetMillis = budgetMillis;
+
+        int count = Math.max(1, threads);
+        players = new AIPlayer[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new AIPlayer(model);
+            // Les fils se partagent les unités de calcul
+            players[i].setSearchThreads(Math.max(1, Runtime.getRuntime().availableProcessors() / count));
+        }
+        workers = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "waffle-ponder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    // Seules les recherches bornées par le temps (niveaux 4 et 5 sans table exacte) valent
+    // la peine d'être anticipées : les autres niveaux répondent instantanément. Appelé sur
+    // l'EDT : ne charge ni ne résout aucune table.
+    public boolean isUseful(int level) {
+        return level >= 4 && !Tablebases.hasTable(width, height);
+    }
+
+    // Commence à réfléchir sur position, le joueur humain ayant la main. Ne bloque pas.
+    // La photo est immuable : les fils la lisent sans copie pendant que la partie continue.
+    public synchronized void start(GameState state, int level, long thinkMillis) {
+        int[] position = state.heightsView();
+        int current = ++batch;
+        cancel();
+        tasks.clear();
+        replies.clear();
+        if (!isUseful(level)) {
+            return;
+        }
+
+        int cells = 0;
+        for (int x = 0; x < width && position[x] > 0; x++) {
+            cells += position[x];
+        }
+        if (candidates.length < cells) {
+            candidates = new int[cells];
+        }
+        // Les tâches d'une réflexion annulée s'arrêtent avant le prochain coup (voir ponder)
+        int[] moves = candidates;
+        int count = MoveGenerator.generate(position, 1, moves) - 1;  // sans la case empoisonnée
+        if (count <= 0) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + budgetMillis;
+        long replyMillis = Math.min(thinkMillis, Math.max(MIN_REPLY_MILLIS, budgetMillis * players.length / count));
+        AtomicInteger next = new AtomicInteger();
+        for (int i = 0; i < players.length; i++) {
+            AIPlayer player = players[i];
+            boolean predict = (i == 0);
+            tasks.add(workers.submit(() -> ponder(player, current, position, level, thinkMillis, replyMillis,
+                    moves, count, next, deadline, predict)));
+        }
+    }
+
+    private void ponder(AIPlayer player, int current, int[] position, int level, long thinkMillis, long replyMillis,
+                        int[] moves, int count, AtomicInteger next, long deadline, boolean predict) {
+        // Un joueur ne sert qu'à une recherche à la fois (voir reply et cancelAndWait)
+        synchronized (player) {
+            if (batch != current) {
+                return;  // réflexion déjà annulée
+            }
+            int[] heights = new int[width];
+            if (predict) {
+                // Le coup que l'IA jouerait à la place du joueur : le plus probable, étudié en
+                // premier et avec tout le temps de réflexion
+                player.setThinkMillis(replyMillis);
+                Move predicted = player.makeMove(level, position);
+                if (predicted == null || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                player.setThinkMillis(thinkMillis);
+                ponderReply(player, position, Moves.pack(predicted), level, heights);
+            }
+            player.setThinkMillis(replyMillis);
+            int k;
+            while (batch == current && (k = next.getAndIncrement()) < count
+                    && System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()) {
+                ponderReply(player, position, moves[k], level, heights);
+            }
+        }
+    }
+
+    private void ponderReply(AIPlayer player, int[] position, int humanMove, int level, int[] heights) {
+        System.arraycopy(position, 0, heights, 0, width);
+        int x = Moves.x(humanMove);
+        int y = Moves.y(humanMove);
+        for (int i = x; i < width && heights[i] > y; i++) {
+            heights[i] = y;
+        }
+        long positionHash = PositionHash.of(heights);
+        long transposedHash = Transpose.key(heights);
+        long key = key(Transpose.canonicalKey(positionHash, transposedHash), level);
+        if (replies.containsKey(key)) {
+            return;
+        }
+
+        Move reply = player.makeMove(level, heights);
+        // Recherche interrompue : sa réponse n'a pas eu tout son temps, on ne la garde pas
+        if (reply != null && !Thread.currentThread().isInterrupted()) {
+            int move = Moves.pack(reply);
+            replies.put(key, Transpose.isCanonical(positionHash, transposedHash) ? move : Transpose.move(move));
+            pondered.incrementAndGet();
+        }
+    }
+
+    // Réponse de l'IA sur position (le joueur humain vient de jouer). À appeler hors de l'EDT :
+    // attend la fin de la réflexion anticipée, immédiate si la position a été étudiée.
+    public Move reply(GameState state, int level, long thinkMillis) {
+        cancelAndWait();
+
+        long positionHash = state.getPositionHash();
+        long transposedHash = Transpose.key(state.heightsView());
+        Integer cached = replies.get(key(Transpose.canonicalKey(positionHash, transposedHash), level));
+        if (cached != null) {
+            hits.incrementAndGet();
+            int move = Transpose.isCanonical(positionHash, transposedHash) ? cached : Transpose.move(cached);
+            return Moves.toMove(Moves.withPlayer(move, 2));  // L'IA est toujours le joueur 2
+        }
+        misses.incrementAndGet();
+        synchronized (players[0]) {
+            players[0].setThinkMillis(thinkMillis);
+            return players[0].makeMove(level, state.heightsView());
+        }
+    }
+
+    // Interrompt la réflexion en cours, sans attendre
+    public synchronized void cancel() {
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    // Future.get ne suffit pas : une tâche annulée en cours d'exécution le rend aussitôt, alors
+    // qu'elle tient encore son joueur. On attend donc chaque joueur : une tâche le garde pendant
+    // toute sa réflexion, et celles qui l'obtiennent ensuite voient que leur réflexion est périmée.
+    private void cancelAndWait() {
+        synchronized (this) {
+            batch++;
+            cancel();
+            tasks.clear();
+        }
+        for (AIPlayer player : players) {
+            synchronized (player) {
+                // Rien : prendre le verrou suffit à attendre la fin de la tâche qui le tenait
+            }
+        }
+    }
+
+    private static long key(long positionHash, int level) {
+        return positionHash ^ level * 0x9E3779B97F4A7C15L;
+    }
+
+    public WaffleModel getModel() {
+        return model;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // Réponses calculées d'avance depuis la création
+    public long getPondered() {
+        return pondered.get();
+    }
+
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+    }
+}
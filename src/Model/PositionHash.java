@@ -0,0 +1,34 @@
+package Model;
+
+public final class PositionHash {
+    // Hachage de Zobrist d'un escalier : XOR des clés (colonne, hauteur) de chaque colonne.
+    // Les clés sont dérivées par SplitMix64 plutôt que tirées dans une table : aucune
+    // limite de taille de gaufre, et la même position a la même clé quelle que soit la partie.
+    // Une colonne vide ne contribue pas : la gaufre vide a la clé 0.
+
+    private PositionHash() {
+    }
+
+    public static long columnKey(int x, int h) {
+        if (h == 0) {
+            return 0L;
+        }
+        long z = ((long) x << 32 | h) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long of(int[] heights) {
+        long hash = 0L;
+        for (int x = 0; x < heights.length && heights[x] > 0; x++) {
+            hash ^= columnKey(x, heights[x]);
+        }
+        return hash;
+    }
+
+    // Variation de la clé quand la colonne x passe de la hauteur from à la hauteur to
+    public static long change(int x, int from, int to) {
+        return columnKey(x, from) ^ columnKey(x, to);
+    }
+}
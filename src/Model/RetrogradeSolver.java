@@ -0,0 +1,146 @@
+package Model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class RetrogradeSolver extends Tablebase {
+    // Au-delà, la construction en mémoire devient trop longue pour une partie interactive
+    public static final long MAX_STATES = 1L << 24;
+
+    // En dessous, la passe séquentielle est plus rapide que le découpage en couches
+    private static final long PARALLEL_THRESHOLD = 1L << 18;
+
+    // Nombre de colonnes fixées avant de passer à l'énumération séquentielle
+    private static final int SPLIT_DEPTH = 3;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] winning;  // bit à 1 = le joueur au trait gagne
+    private final long buildNanos;
+
+    public RetrogradeSolver(int width, int height) {
+        this(width, height, ForkJoinPool.commonPool());
+    }
+
+    public RetrogradeSolver(int width, int height, ForkJoinPool pool) {
+        super(new StaircaseRanker(width, height));
+        this.winning = new long[Math.toIntExact((ranker.size() + 63) >>> 6)];
+
+        long start = System.nanoTime();
+        // Rang 0 = gaufre vide : l'adversaire vient de manger la case empoisonnée,
+        // le joueur au trait a donc gagné.
+        winning[0] = 1L;
+        if (pool.getParallelism() > 1 && ranker.size() >= PARALLEL_THRESHOLD) {
+            solveByLayers(pool);
+        } else {
+            solve();
+        }
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    private void solve() {
+        int[] heights = new int[ranker.getWidth()];
+        long rank = 0;
+        while (ranker.next(heights)) {
+            rank++;
+            // Les successeurs ont tous un rang inférieur : ils sont déjà résolus
+            if (findLosingSuccessor(heights, rank) >= 0) {
+                winning[(int) (rank >>> 6)] |= 1L << rank;
+            }
+        }
+    }
+
+    private void solveByLayers(ForkJoinPool pool) {
+        // Couche n = escaliers de n cases. Un coup retire au moins une case : une couche ne
+        // dépend que des couches inférieures, déjà terminées (la fin de invoke() publie leurs bits).
+        int cells = ranker.getWidth() * ranker.getHeight();
+        for (int n = 1; n <= cells; n++) {
+            pool.invoke(new LayerTask(new int[ranker.getWidth()], 0, ranker.getHeight(), n, 0L));
+        }
+    }
+
+    private final class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = -6102729992766680752L;
+
+        private final int[] heights;
+        private final int column;
+        private final int max;
+        private final int remaining;
+        private final long rank;
+
+        LayerTask(int[] heights, int column, int max, int remaining, long rank) {
+            this.heights = heights;
+            this.column = column;
+            this.max = max;
+            this.remaining = remaining;
+            this.rank = rank;
+        }
+
+        @Override
+        protected void compute() {
+            if (column >= SPLIT_DEPTH || remaining == 0) {
+                enumerate(heights, column, max, remaining, rank);
+                return;
+            }
+
+            // Une sous-tâche par hauteur possible de la colonne courante
+            List<LayerTask> tasks = new ArrayList<>();
+            int columnsLeft = ranker.getWidth() - column;
+            for (int h = minHeight(remaining, columnsLeft); h <= Math.min(max, remaining); h++) {
+                int[] prefix = heights.clone();
+                prefix[column] = h;
+                tasks.add(new LayerTask(prefix, column + 1, h, remaining - h,
+                        rank + ranker.contribution(column, h)));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    // Énumère les escaliers dont les colonnes [0, column) sont fixées et qui ont
+    // encore remaining cases à répartir sur les colonnes suivantes, chacune <= max.
+    private void enumerate(int[] heights, int column, int max, int remaining, long rank) {
+        if (remaining == 0) {
+            for (int x = column; x < heights.length; x++) {
+                heights[x] = 0;
+            }
+            if (findLosingSuccessor(heights, rank) >= 0) {
+                // Plusieurs tâches peuvent écrire dans le même mot : OU atomique, sans verrou
+                WORDS.getAndBitwiseOr(winning, (int) (rank >>> 6), 1L << rank);
+            }
+            return;
+        }
+
+        int columnsLeft = heights.length - column;
+        for (int h = minHeight(remaining, columnsLeft); h <= Math.min(max, remaining); h++) {
+            heights[column] = h;
+            enumerate(heights, column + 1, h, remaining - h, rank + ranker.contribution(column, h));
+        }
+    }
+
+    // Hauteur minimale de la colonne pour que les suivantes (pas plus hautes) absorbent le reste
+    private static int minHeight(int remaining, int columnsLeft) {
+        return (remaining + columnsLeft - 1) / columnsLeft;
+    }
+
+    @Override
+    protected boolean isWinningRank(long rank) {
+        return (winning[(int) (rank >>> 6)] & (1L << rank)) != 0;
+    }
+
+    // Mots de 64 bits de la table, utilisés pour l'écriture sur disque
+    long[] words() {
+        return winning;
+    }
+
+    public long getBuildMillis() {
+        return buildNanos / 1_000_000;
+    }
+
+    public long getStatesPerSecond() {
+        return (long) (ranker.size() * 1e9 / Math.max(1, buildNanos));
+    }
+}
@@ -0,0 +1,165 @@
+package Model;
+
+public final class StaircaseRanker {
+    // Une gaufre entamée est toujours un « escalier » : la hauteur des colonnes
+    // (nombre de cases restantes depuis le haut) ne croît jamais de gauche à droite.
+    // Chaque escalier de width colonnes et de hauteur <= height correspond à une
+    // combinaison, classée dans le système combinatoire (ordre colex) :
+    //     rang = somme sur j de C(h[j] + width - 1 - j, width - j)
+    // Le rang est dense dans [0, C(width + height, width)) et manger des cases le
+    // fait toujours diminuer : la gaufre vide a le rang 0, la gaufre pleine le rang maximal.
+    private final int width;
+    private final int height;
+    private final long size;
+    private final long[][] contrib;  // contrib[colonne][hauteur]
+    private final long[][] transposedContrib;  // idem pour le rang du transposé, voir transposedRank
+
+    public StaircaseRanker(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Dimensions invalides : " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+
+        // Triangle de Pascal jusqu'à width + height, saturé à Long.MAX_VALUE : les
+        // coefficients utilisés sont tous majorés par C(width + height, width), seuls
+        // ceux du milieu des longues lignes (gaufres très étroites) peuvent déborder.
+        int n = width + height;
+        long[][] binomial = new long[n + 1][];
+        for (int i = 0; i <= n; i++) {
+            binomial[i] = new long[i + 1];
+            binomial[i][0] = 1;
+            binomial[i][i] = 1;
+            for (int k = 1; k < i; k++) {
+                long sum = binomial[i - 1][k - 1] + binomial[i - 1][k];
+                binomial[i][k] = (sum < 0) ? Long.MAX_VALUE : sum;
+            }
+        }
+        this.size = binomial[n][width];
+        if (size == Long.MAX_VALUE) {
+            throw new ArithmeticException("Trop d'escaliers pour une gaufre " + width + "x" + height);
+        }
+
+        contrib = new long[width][height + 1];
+        for (int j = 0; j < width; j++) {
+            int k = width - j;
+            for (int h = 0; h <= height; h++) {
+                int top = h + k - 1;
+                contrib[j][h] = (k <= top) ? binomial[top][k] : 0;
+            }
+        }
+
+        // La colonne c de hauteur h allonge d'une case les lignes 0..h-1 du transposé, qui en
+        // est la colonne c + 1 : sa part du rang transposé est la somme de ces allongements.
+        // Définie pour les escaliers dont le transposé tient (c < height, h <= width).
+        transposedContrib = new long[height][width + 1];
+        for (int c = 0; c < height; c++) {
+            for (int h = 1; h <= width; h++) {
+                transposedContrib[c][h] = transposedContrib[c][h - 1] + contrib[h - 1][c + 1] - contrib[h - 1][c];
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Nombre d'escaliers distincts, gaufre vide comprise
+    public long size() {
+        return size;
+    }
+
+    public long contribution(int column, int columnHeight) {
+        return contrib[column][columnHeight];
+    }
+
+    // Les colonnes au-delà de heights.length sont considérées vides : un escalier
+    // plus étroit que le classement garde donc un rang valide.
+    public long rank(int[] heights) {
+        long rank = 0;
+        int columns = Math.min(heights.length, width);
+        for (int x = 0; x < columns; x++) {
+            rank += contrib[x][heights[x]];
+        }
+        return rank;
+    }
+
+    // Inverse de rank : écrit dans heights (width colonnes) l'escalier de ce rang. Chaque
+    // colonne prend la plus grande hauteur dont la part ne dépasse pas le reste du rang (les
+    // parts croissent strictement avec la hauteur) ; O(largeur + hauteur).
+    public void unrank(long rank, int[] heights) {
+        int h = height;
+        for (int x = 0; x < width; x++) {
+            while (contrib[x][h] > rank) {
+                h--;
+            }
+            heights[x] = h;
+            rank -= contrib[x][h];
+        }
+    }
+
+    public boolean fits(int[] heights) {
+        for (int x = 0; x < heights.length; x++) {
+            if (heights[x] == 0) {
+                return true;
+            }
+            if (x >= width || heights[x] > height) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Rang du transposé de l'escalier (voir Transpose), sans le construire, en O(colonnes non
+    // vides) comme rank ; -1 s'il ne tient pas dans le classement
+    public long transposedRank(int[] heights) {
+        if (heights.length == 0) {
+            return 0;
+        }
+        if (heights[0] > width) {
+            return -1;
+        }
+        long rank = 0;
+        for (int x = 0; x < heights.length && heights[x] > 0; x++) {
+            if (x >= height) {
+                return -1;
+            }
+            rank += transposedContrib[x][heights[x]];
+        }
+        return rank;
+    }
+
+    // Passe à l'escalier de rang suivant (ordre colex). Retourne false après le dernier.
+    public boolean next(int[] heights) {
+        for (int j = width - 1; j >= 0; j--) {
+            int limit = (j == 0) ? height : heights[j - 1];
+            if (heights[j] < limit) {
+                heights[j]++;
+                for (int i = j + 1; i < width; i++) {
+                    heights[i] = 0;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // C(width + height, width), saturé à Long.MAX_VALUE pour les très grandes gaufres
+    public static long countStates(int width, int height) {
+        int k = Math.min(width, height);
+        long count = 1;
+        for (int i = 1; i <= k; i++) {
+            // count * (n - k + i) / i reste entier à chaque étape
+            long factor = Math.max(width, height) + i;
+            if (count > Long.MAX_VALUE / factor) {
+                return Long.MAX_VALUE;
+            }
+            count = count * factor / i;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package Model;
+
+public abstract class Tablebase {
+    // Table gagnant/perdant indexée par le rang des escaliers : un bit par position,
+    // à 1 si le joueur au trait gagne. Le rang 0 (gaufre vide) est toujours gagnant.
+    protected final StaircaseRanker ranker;
+
+    protected Tablebase(StaircaseRanker ranker) {
+        this.ranker = ranker;
+    }
+
+    protected abstract boolean isWinningRank(long rank);
+
+    // Cherche un coup menant à une position perdante pour l'adversaire.
+    // Retourne le coup codé (y << 32 | x), ou -1 si la position est perdante.
+    protected final long findLosingSuccessor(int[] heights, long rank) {
+        int end = heights.length;
+        int rows = (end == 0) ? 0 : heights[0];
+
+        for (int y = 0; y < rows; y++) {
+            // Colonnes [0, end) encore assez hautes pour contenir la ligne y
+            while (end > 0 && heights[end - 1] <= y) {
+                end--;
+            }
+
+            // Le coup (x, y) ramène toutes les colonnes >= x à la hauteur y :
+            // on accumule la variation de rang de droite à gauche.
+            long delta = 0;
+            for (int x = end - 1; x >= 0; x--) {
+                delta += ranker.contribution(x, y) - ranker.contribution(x, heights[x]);
+                if (!isWinningRank(rank + delta)) {
+                    return ((long) y << 32) | x;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean covers(int[] heights) {
+        return ranker.fits(heights);
+    }
+
+    public boolean isWinning(int[] heights) {
+        return isWinningRank(ranker.rank(heights));
+    }
+
+    public Move findMove(int[] heights, int player) {
+        long move = findLosingSuccessor(heights, ranker.rank(heights));
+        if (move >= 0) {
+            return new Move((int) move, (int) (move >>> 32), player);
+        }
+
+        // Position perdante : manger une seule case pour faire durer la partie
+        for (int x = heights.length - 1; x >= 0; x--) {
+            if (heights[x] > 0) {
+                return new Move(x, heights[x] - 1, player);
+            }
+        }
+        return null;
+    }
+
+    public long size() {
+        return ranker.size();
+    }
+
+    public int getWidth() {
+        return ranker.getWidth();
+    }
+
+    public int getHeight() {
+        return ranker.getHeight();
+    }
+}
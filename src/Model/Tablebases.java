@@ -0,0 +1,206 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+public final class Tablebases {
+    // Répertoire des tables pré-calculées (voir Tools.TablebaseGenerator)
+    public static final String DIRECTORY_PROPERTY = "waffle.tablebases";
+    private static final String DEFAULT_DIRECTORY = "tablebases";
+
+    // Mémoire des tables gardées en cache (Mo, un bit par position) : au-delà, la table
+    // utilisée le moins récemment est oubliée, et résolue à nouveau si elle resert
+    public static final String CACHE_PROPERTY = "waffle.tablebases.cache";
+    public static final int DEFAULT_CACHE_MB = 64;
+    private static final long CACHE_BYTES = (long) Integer.getInteger(CACHE_PROPERTY, DEFAULT_CACHE_MB) << 20;
+    private static final int MAX_ENTRIES = 1024;  // y compris les tailles sans table
+
+    // Tables partagées par toutes les parties de la JVM, une seule par taille de gaufre
+    // (orientation canonique, voir Transpose), dans l'ordre d'accès. Le verrou ne protège que
+    // la table d'entrées : chargements et résolutions se font hors verrou, dans la tâche de l'entrée.
+    private static final Map<Long, Entry> TABLES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes;  // protégé par TABLES
+
+    // Préparations lancées par ifReady, hors de l'EDT
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waffle-tablebase");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Table d'une taille : prête quand sa tâche est terminée (null si la taille n'en a pas)
+    private static final class Entry {
+        final FutureTask<Tablebase> task;
+        long bytes;  // mémoire comptée dans cachedBytes, une fois la table prête
+        volatile Tablebase transposed;  // vue pour la gaufre transposée, créée à la demande
+
+        Entry(int width, int height) {
+            task = new FutureTask<>(() -> load(width, height));
+        }
+    }
+
+    private Tablebases() {
+    }
+
+    public static Path getDirectory() {
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+    }
+
+    // Retourne null si aucune table n'existe sur disque et que la gaufre est
+    // trop grande pour être résolue en mémoire. Une gaufre plus large que haute est servie
+    // par la table de sa transposée (voir Transpose). Si un autre fil prépare déjà la table,
+    // attend qu'elle soit prête (null si le fil appelant est interrompu entre-temps).
+    public static Tablebase forBoard(int width, int height) {
+        Entry entry = entry(Math.min(width, height), Math.max(width, height), Runnable::run);
+        Tablebase table;
+        try {
+            table = entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return (table != null && width > height) ? transposed(entry, table) : table;
+    }
+
+    private static Tablebase transposed(Entry entry, Tablebase table) {
+        Tablebase view = entry.transposed;
+        if (view == null) {
+            // Deux fils peuvent créer chacun leur vue : elles sont équivalentes
+            view = new TransposedTablebase(table);
+            entry.transposed = view;
+        }
+        return view;
+    }
+
+    // Vrai si forBoard retournera une table (fichier pré-calculé ou résolution en mémoire),
+    // sans rien charger ni résoudre
+    public static boolean hasTable(int width, int height) {
+        int columns = Math.min(width, height);
+        int rows = Math.max(width, height);
+        Entry entry;
+        synchronized (TABLES) {
+            entry = TABLES.get(key(columns, rows));
+        }
+        if (entry != null && entry.task.isDone()) {
+            return entry.task.resultNow() != null;
+        }
+        return Files.isRegularFile(getDirectory().resolve(MappedTablebase.fileName(columns, rows)))
+                || StaircaseRanker.countStates(columns, rows) <= RetrogradeSolver.MAX_STATES;
+    }
+
+    // Table déjà prête, sans jamais bloquer (pour l'EDT) : null si la gaufre n'a pas de table,
+    // ou si elle reste à charger ou à résoudre, ce qui est alors lancé sur un fil à part.
+    public static Tablebase ifReady(int width, int height) {
+        int columns = Math.min(width, height);
+        int rows = Math.max(width, height);
+        Entry entry;
+        synchronized (TABLES) {
+            entry = TABLES.get(key(columns, rows));
+        }
+        if (entry == null) {
+            if (!hasTable(columns, rows)) {
+                return null;
+            }
+            entry = entry(columns, rows, LOADER);
+        }
+        if (entry.task.state() != Future.State.SUCCESS) {
+            return null;
+        }
+        Tablebase table = entry.task.resultNow();
+        return (table != null && width > height) ? transposed(entry, table) : table;
+    }
+
+    private static long key(int width, int height) {
+        return ((long) width << 32) | height;
+    }
+
+    // Entrée de la taille (width <= height), créée au besoin : sa tâche est alors lancée par
+    // runner (sur le fil appelant ou en arrière-plan), hors du verrou
+    private static Entry entry(int width, int height, Executor runner) {
+        long key = key(width, height);
+        Entry entry;
+        synchronized (TABLES) {
+            entry = TABLES.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(width, height);
+            TABLES.put(key, entry);
+        }
+        Entry created = entry;
+        runner.execute(() -> {
+            created.task.run();
+            settle(key, created);
+        });
+        return entry;
+    }
+
+    // Table prête : sa mémoire est comptée, puis les tables les moins récemment utilisées
+    // sont oubliées tant que le cache dépasse son budget (celles en préparation restent)
+    private static void settle(long key, Entry entry) {
+        Tablebase table = (entry.task.state() == Future.State.SUCCESS) ? entry.task.resultNow() : null;
+        synchronized (TABLES) {
+            if (TABLES.get(key) != entry) {
+                return;
+            }
+            if (entry.task.state() == Future.State.FAILED) {
+                TABLES.remove(key);  // la prochaine demande réessaiera
+                return;
+            }
+            entry.bytes = (table != null) ? (table.size() + 7) / 8 : 0;
+            cachedBytes += entry.bytes;
+
+            Iterator<Map.Entry<Long, Entry>> eldest = TABLES.entrySet().iterator();
+            while ((cachedBytes > CACHE_BYTES || TABLES.size() > MAX_ENTRIES) && eldest.hasNext()) {
+                Map.Entry<Long, Entry> candidate = eldest.next();
+                if (candidate.getValue() != entry && candidate.getValue().task.isDone()) {
+                    cachedBytes -= candidate.getValue().bytes;
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    // Plus grande table carrée (bornée par la gaufre) résoluble exactement : les recherches
+    // l'interrogent dès que l'escalier restant y tient.
+    public static Tablebase forProbing(int width, int height) {
+        int side = 1;
+        while (side < Math.max(width, height)
+                && StaircaseRanker.countStates(Math.min(width, side + 1), Math.min(height, side + 1))
+                <= RetrogradeSolver.MAX_STATES) {
+            side++;
+        }
+        return forBoard(Math.min(width, side), Math.min(height, side));
+    }
+
+    private static Tablebase load(int width, int height) {
+        // D'abord le fichier pré-calculé : le premier coup ne coûte qu'un défaut de page
+        Path file = getDirectory().resolve(MappedTablebase.fileName(width, height));
+        if (Files.isRegularFile(file)) {
+            try {
+                return MappedTablebase.open(file);
+            } catch (IOException e) {
+                System.err.println("Table de finales ignorée : " + e.getMessage());
+            }
+        }
+
+        // Sinon, résolution en mémoire si la taille le permet
+        if (StaircaseRanker.countStates(width, height) <= RetrogradeSolver.MAX_STATES) {
+            return new RetrogradeSolver(width, height);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package Model;
+
+public final class Transpose {
+    // Symétrie par rapport à la diagonale : la colonne x d'un escalier devient sa ligne x.
+    // Un escalier et son transposé ont la même valeur, et le coup (x, y) de l'un est le coup
+    // (y, x) de l'autre. Tables, caches et table de transposition rangent donc une seule des
+    // deux orientations, l'orientation canonique : celle de plus petite clé (voir PositionHash),
+    // ce qui se décide en O(1) quand les deux clés sont tenues à jour.
+
+    private Transpose() {
+    }
+
+    // Hauteurs du transposé, de longueur height (hauteur de la gaufre d'origine)
+    public static int[] of(int[] heights, int height) {
+        int[] transposed = new int[height];
+        int x = heights.length;
+        for (int y = 0; y < height; y++) {
+            // Longueur de la ligne y : colonnes encore assez hautes pour la contenir
+            while (x > 0 && heights[x - 1] <= y) {
+                x--;
+            }
+            transposed[y] = x;
+        }
+        return transposed;
+    }
+
+    // Clé du transposé (PositionHash.of(of(heights, ...))), sans le construire : O(largeur + hauteur)
+    public static long key(int[] heights) {
+        long key = 0L;
+        int x = heights.length;
+        for (int y = 0; x > 0; y++) {
+            while (x > 0 && heights[x - 1] <= y) {
+                x--;
+            }
+            key ^= PositionHash.columnKey(y, x);
+        }
+        return key;
+    }
+
+    // Clé commune aux deux orientations
+    public static long canonicalKey(long key, long transposedKey) {
+        return Math.min(key, transposedKey);
+    }
+
+    // Vrai si l'orientation de clé key est l'orientation canonique
+    public static boolean isCanonical(long key, long transposedKey) {
+        return key <= transposedKey;
+    }
+
+    // Coup codé (voir Moves) dans l'autre orientation ; le joueur est conservé
+    public static int move(int move) {
+        return Moves.pack(Moves.y(move), Moves.x(move), Moves.player(move));
+    }
+
+    public static Move move(Move move) {
+        return new Move(move.getY(), move.getX(), move.getPlayer());
+    }
+}
@@ -0,0 +1,36 @@
+package Model;
+
+final class TransposedTablebase extends Tablebase {
+    // Table d'une gaufre plus large que haute, servie par la table de la gaufre transposée
+    // (voir Transpose) : une seule table par paire de dimensions, en mémoire comme sur disque.
+    private final Tablebase table;
+    private final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[getWidth()]);
+
+    TransposedTablebase(Tablebase table) {
+        super(new StaircaseRanker(table.getHeight(), table.getWidth()));
+        this.table = table;
+    }
+
+    @Override
+    public boolean isWinning(int[] heights) {
+        // Rang du transposé calculé à la volée : aucune allocation pour les sondes des recherches
+        return table.isWinningRank(table.ranker.transposedRank(heights));
+    }
+
+    // Coup cherché dans la table sur l'escalier transposé, puis traduit : la table évalue chaque
+    // coup candidat par son propre rang, sans passer par isWinningRank
+    @Override
+    public Move findMove(int[] heights, int player) {
+        Move move = table.findMove(Transpose.of(heights, getHeight()), player);
+        return (move == null) ? null : Transpose.move(move);
+    }
+
+    // Rang de la vue -> escalier -> rang de son transposé dans la table : O(largeur + hauteur).
+    // La vue est partagée entre les fils (voir Tablebases) : un escalier de travail par fil.
+    @Override
+    protected boolean isWinningRank(long rank) {
+        int[] heights = scratch.get();
+        ranker.unrank(rank, heights);
+        return table.isWinningRank(table.ranker.transposedRank(heights));
+    }
+}
@@ -0,0 +1,135 @@
+package Model;
+
+import java.util.Arrays;
+
+public final class TranspositionTable {
+    // Résultat stocké : borne exacte, inférieure ou supérieure
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    // Entrée = clé 64 bits + données 64 bits :
+    //   x (15 bits) | y (15 bits) | profondeur (7 bits) | type (2 bits) | génération (4 bits) | score (21 bits signés)
+    // x et y couvrent toutes les coordonnées d'un coup codé (Moves.MAX_COORDINATE) ; la profondeur
+    // ne dépasse pas 64 coups et le score reste dans ±(MAT + 1), soit moins de 2^20.
+    private static final int ENTRY_BYTES = 16;
+    private static final int SLOTS_PER_BUCKET = 2;
+
+    // Chaque seau a deux cases : la première garde l'analyse la plus profonde,
+    // la seconde est toujours remplacée.
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int generation;
+
+    private long probes;
+    private long hits;
+    private long stores;
+
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(SLOTS_PER_BUCKET, ((long) megabytes << 20) / ENTRY_BYTES);
+        // Nombre de seaux arrondi à la puissance de deux inférieure
+        long buckets = Long.highestOneBit(Math.min(entries / SLOTS_PER_BUCKET, 1L << 29));
+        keys = new long[(int) buckets * SLOTS_PER_BUCKET];
+        data = new long[keys.length];
+        bucketMask = (int) buckets - 1;
+    }
+
+    // Nouvelle recherche : les entrées plus anciennes deviennent remplaçables
+    public void newSearch() {
+        generation = (generation + 1) & 0xF;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        probes = 0;
+        hits = 0;
+        stores = 0;
+    }
+
+    // Retourne l'indice de l'entrée correspondant à la clé, ou -1
+    public int find(long key) {
+        probes++;
+        int slot = ((int) key & bucketMask) * SLOTS_PER_BUCKET;
+        for (int i = slot; i < slot + SLOTS_PER_BUCKET; i++) {
+            if (keys[i] == key) {
+                hits++;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void store(long key, int move, int depth, int type, int score) {
+        stores++;
+        int slot = ((int) key & bucketMask) * SLOTS_PER_BUCKET;
+        long entry = pack(move, depth, type, score);
+
+        long kept = data[slot];
+        if (keys[slot] == key || keys[slot] == 0
+                || generationOf(kept) != generation || depth >= depthOf(kept)) {
+            keys[slot] = key;
+            data[slot] = entry;
+        } else {
+            keys[slot + 1] = key;
+            data[slot + 1] = entry;
+        }
+    }
+
+    private long pack(int move, int depth, int type, int score) {
+        long x = Moves.x(move);
+        long y = Moves.y(move);
+        return x
+                | (y << 15)
+                | ((long) Math.min(depth, 127) << 30)
+                | ((long) type << 37)
+                | ((long) generation << 39)
+                | ((long) score << 43);
+    }
+
+    public int move(int index) {
+        long entry = data[index];
+        return Moves.pack((int) entry & Moves.MAX_COORDINATE, (int) (entry >>> 15) & Moves.MAX_COORDINATE, 0);
+    }
+
+    public int depth(int index) {
+        return depthOf(data[index]);
+    }
+
+    public int type(int index) {
+        return (int) (data[index] >>> 37) & 0x3;
+    }
+
+    public int score(int index) {
+        return (int) (data[index] >> 43);
+    }
+
+    private static int depthOf(long entry) {
+        return (int) (entry >>> 30) & 0x7F;
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> 39) & 0xF;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    public double getHitRate() {
+        return (probes == 0) ? 0.0 : (double) hits / probes;
+    }
+}
@@ -1,35 +1,59 @@
 package Model;
 
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.ModelEvent;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class WaffleModel implements Serializable {
+public final class WaffleModel implements Serializable {
+    private static final long serialVersionUID = 5499088982619355694L;
+
     // Constantes
     public static final int DEFAULT_WIDTH = 6;
     public static final int DEFAULT_HEIGHT = 8;
 
     // États du jeu
-    private boolean[][] waffle;  // true = case présente, false = case mangée
+    // La gaufre entamée est toujours un escalier : pour chaque colonne, le nombre de
+    // cases restantes depuis le haut (hauteurs jamais croissantes de gauche à droite).
+    private int[] columnHeights;
+    private int remainingCells;
+    private long positionHash;  // clé de Zobrist de l'escalier, tenue à jour coup par coup
     private int width;
     private int height;
     private int currentPlayer;  // 1 = joueur 1, 2 = joueur 2
     private boolean gameOver;
     private int winner;  // 0 = pas de gagnant, 1 = joueur 1, 2 = joueur 2
 
-    // Pour annuler/rejouer
-    private List<Move> moveHistory;
+    // Dernière photo publiée de la partie (voir GameState), lisible depuis n'importe quel fil
+    private transient volatile GameState state;
+    private transient int dirtyFrom;  // colonnes [dirtyFrom, dirtyTo) changées depuis la dernière photo
+    private transient int dirtyTo;
+
+    // Pour annuler/rejouer : coups, différences par coup et points de contrôle
+    private MoveHistory moveHistory;
     private int currentMoveIndex;
 
-    // Pour l'IA
+    // Pour l'IA : l'adversaire, et un joueur distinct pour les indices (qui peuvent être
+    // demandés pendant que l'adversaire réfléchit sur un autre fil)
     private final AIPlayer aiPlayer;
+    private final AIPlayer hintPlayer;
     private boolean isAIPlaying;
-    private int aiLevel;  // 1 = aléatoire, 2 = intermédiaire, 3 = avancé
+    private int aiLevel;  // 1 = aléatoire, 2 = intermédiaire, 3 = avancé, 4 = expert (alpha-bêta), 5 = Monte-Carlo
 
     // Pour les hints (conseils)
     private int[] hintsRemaining = new int[2];
     private static final int MAX_HINTS = 3;
 
+    // Mesures (voir Metrics) : sans enregistrement JFR ni métriques, elles ne coûtent rien
+    private static final LatencyHistogram MOVE_LATENCY = MetricsRegistry.histogram("model.makeMove");
+    private static final LatencyHistogram UNDO_LATENCY = MetricsRegistry.histogram("model.undoMove");
+    private static final LatencyHistogram REDO_LATENCY = MetricsRegistry.histogram("model.redoMove");
+
 
     public WaffleModel() {
         this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
@@ -44,16 +68,16 @@ public class WaffleModel implements Serializable {
 
         // Créer l'IA
         aiPlayer = new AIPlayer(this);
+        hintPlayer = new AIPlayer(this);
     }
 
     public void initGame() {
-        // Initialiser la gaufre
-        waffle = new boolean[height][width];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                waffle[y][x] = true;  // Toutes les cases sont initialement présentes
-            }
-        }
+        // Initialiser la gaufre : toutes les cases sont initialement présentes
+        columnHeights = new int[width];
+        Arrays.fill(columnHeights, height);
+        remainingCells = width * height;
+        positionHash = PositionHash.of(columnHeights);
+        changed(0, width);
 
         // Initialiser l'état du jeu
         currentPlayer = 1;  // Le joueur 1 commence
@@ -61,12 +85,35 @@ public class WaffleModel implements Serializable {
         winner = 0;
 
         // Initialiser l'historique des coups
-        moveHistory = new ArrayList<>();
+        moveHistory = new MoveHistory();
         currentMoveIndex = -1;
 
         // Initialiser les hints
         hintsRemaining[0] = MAX_HINTS;
         hintsRemaining[1] = MAX_HINTS;
+
+        publish();
+    }
+
+    // Nouvelle photo de la partie, après chaque changement : les blocs de colonnes entamés
+    // depuis la précédente et un petit objet, publiés par une seule écriture volatile
+    private void publish() {
+        state = new GameState(state, width, height, columnHeights, dirtyFrom, dirtyTo, currentPlayer,
+                currentMoveIndex, remainingCells, positionHash, winner);
+        dirtyFrom = width;
+        dirtyTo = 0;
+    }
+
+    // Partie désérialisée (la photo est transient) : publiée ici, avant que l'objet ne soit
+    // partagé, et non à la première lecture depuis un fil quelconque
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        publish();
+    }
+
+    private void changed(int from, int to) {
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
     }
 
     public boolean isValidMove(int x, int y) {
@@ -76,48 +123,72 @@ public class WaffleModel implements Serializable {
         }
 
         // Vérifier si la case est disponible
-        return waffle[y][x];
+        return y < columnHeights[x];
     }
 
     public boolean makeMove(int x, int y) {
+        ModelEvent event = new ModelEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        boolean applied = play(x, y);
+        MOVE_LATENCY.recordSince(start);
+        commit(event, "move", Moves.pack(x, y, 0), applied);
+        return applied;
+    }
+
+    // Événement JFR, rempli seulement si un enregistrement le demande
+    private void commit(ModelEvent event, String action, int move, boolean applied) {
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.x = Moves.x(move);
+            event.y = Moves.y(move);
+            event.moveIndex = currentMoveIndex;
+            event.applied = applied;
+            event.commit();
+        }
+    }
+
+    private boolean play(int x, int y) {
         if (gameOver || !isValidMove(x, y)) {
             return false;
         }
 
-        // Créer un objet Move pour l'historique
-        Move move = new Move(x, y, currentPlayer);
+        // Coup codé dans un int pour l'historique
+        int move = Moves.pack(x, y, currentPlayer);
 
-        // Appliquer le coup
+        // Supprimer les coups après l'index actuel, puis enregistrer le coup
+        // (avec les hauteurs qu'il va modifier) avant de l'appliquer
+        moveHistory.truncate(currentMoveIndex + 1);
+        moveHistory.append(move, columnHeights);
         applyMove(move);
-
-        // Ajouter le coup à l'historique et supprimer les coups après l'index actuel
-        if (currentMoveIndex < moveHistory.size() - 1) {
-            moveHistory = new ArrayList<>(moveHistory.subList(0, currentMoveIndex + 1));
-        }
-        moveHistory.add(move);
         currentMoveIndex++;
+        moveHistory.checkpoint(currentMoveIndex, columnHeights);
 
         // Vérifier si le jeu est terminé
         checkGameOver(x, y);
 
         // Changer de joueur si le jeu n'est pas terminé
         if (!gameOver) {
-            switchPlayer();
+            nextPlayer();
         }
 
+        publish();
         return true;
     }
 
-    private void applyMove(Move move) {
-        int x = move.getX();
-        int y = move.getY();
-
-        // "Mordre" dans la gaufre : supprimer toutes les cases en bas à droite du coup joué
-        for (int j = y; j < height; j++) {
-            for (int i = x; i < width; i++) {
-                waffle[j][i] = false;
-            }
+    private void applyMove(int move) {
+        int x = Moves.x(move);
+        int y = Moves.y(move);
+
+        // "Mordre" dans la gaufre : les colonnes à partir de x sont ramenées à la hauteur y.
+        // Les hauteurs ne croissent jamais : on s'arrête à la première colonne déjà assez basse.
+        int i = x;
+        for (; i < width && columnHeights[i] > y; i++) {
+            remainingCells -= columnHeights[i] - y;
+            positionHash ^= PositionHash.change(i, columnHeights[i], y);
+            columnHeights[i] = y;
         }
+        changed(x, i);
     }
 
     private void checkGameOver(int x, int y) {
@@ -129,70 +200,180 @@ public class WaffleModel implements Serializable {
     }
 
     public void switchPlayer() {
-        currentPlayer = (currentPlayer == 1) ? 2 : 1;
+        nextPlayer();
+        publish();
+    }
 
-        // Remove the AI move logic since the controller will handle it with delay
+    private void nextPlayer() {
+        currentPlayer = (currentPlayer == 1) ? 2 : 1;
     }
 
     public boolean undoMove() {
+        ModelEvent event = new ModelEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        int undone = (currentMoveIndex >= 0) ? moveHistory.get(currentMoveIndex) : 0;
+        boolean applied = undo();
+        UNDO_LATENCY.recordSince(start);
+        commit(event, "undo", undone, applied);
+        return applied;
+    }
+
+    private boolean undo() {
         if (currentMoveIndex < 0) {
             return false;  // Pas de coup à annuler
         }
 
+        // Restaurer les colonnes entamées par le dernier coup
+        unapplyMove(currentMoveIndex);
         currentMoveIndex--;
-
-        // Reconstruire l'état du jeu
-        reconstructGameState();
+        restoreTurnState();
+        publish();
 
         return true;
     }
 
     public boolean redoMove() {
+        ModelEvent event = new ModelEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+        boolean applied = redo();
+        REDO_LATENCY.recordSince(start);
+        commit(event, "redo", applied ? moveHistory.get(currentMoveIndex) : 0, applied);
+        return applied;
+    }
+
+    private boolean redo() {
         if (currentMoveIndex >= moveHistory.size() - 1) {
             return false;  // Pas de coup à rejouer
         }
 
         currentMoveIndex++;
+        applyMove(moveHistory.get(currentMoveIndex));
+        restoreTurnState();
+        publish();
 
-        // Reconstruire l'état du jeu
-        reconstructGameState();
+        return true;
+    }
+
+    // Se placer après le coup d'indice index (-1 = début de partie)
+    public boolean goToMove(int index) {
+        if (index < -1 || index >= moveHistory.size()) {
+            return false;
+        }
+
+        // Loin de la position actuelle : repartir du point de contrôle le plus proche
+        if (Math.abs(index - currentMoveIndex) > MoveHistory.SNAPSHOT_INTERVAL) {
+            currentMoveIndex = moveHistory.restoreCheckpoint(index, columnHeights);
+            if (currentMoveIndex < 0) {
+                Arrays.fill(columnHeights, height);
+            }
+            remainingCells = 0;
+            for (int h : columnHeights) {
+                remainingCells += h;
+            }
+            positionHash = PositionHash.of(columnHeights);
+            changed(0, width);
+        }
+
+        while (currentMoveIndex > index) {
+            unapplyMove(currentMoveIndex);
+            currentMoveIndex--;
+        }
+        while (currentMoveIndex < index) {
+            currentMoveIndex++;
+            applyMove(moveHistory.get(currentMoveIndex));
+        }
+        restoreTurnState();
+        publish();
 
         return true;
     }
 
-    private void reconstructGameState() {
-        // Réinitialiser la gaufre
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                waffle[y][x] = true;
+    // Remet les colonnes entamées par le coup index dans leur état d'avant le coup
+    private void unapplyMove(int index) {
+        int x = Moves.x(moveHistory.get(index));
+        int end = x + moveHistory.changedColumns(index);
+        for (int i = x; i < end; i++) {
+            positionHash ^= PositionHash.columnKey(i, columnHeights[i]);
+        }
+        remainingCells += moveHistory.undo(index, columnHeights);
+        for (int i = x; i < end; i++) {
+            positionHash ^= PositionHash.columnKey(i, columnHeights[i]);
+        }
+        changed(x, end);
+    }
+
+    // Reconstruit l'historique d'une partie chargée en une seule passe, colonne par colonne
+    // (jamais case par case), puis se place après le coup index. Les joueurs sont déduits
+    // de l'alternance des coups. expected, s'il est fourni, est l'escalier attendu après le
+    // coup index. Retourne false si les coups ou l'escalier sont incohérents.
+    boolean restore(int[] moves, int count, int index, int[] expected) {
+        if (count < 0 || index < -1 || index >= count) {
+            return false;
+        }
+
+        int[] heights = new int[width];
+        Arrays.fill(heights, height);
+        int[] atIndex = (index < 0) ? heights.clone() : null;
+        MoveHistory history = new MoveHistory();
+        for (int i = 0; i < count; i++) {
+            int x = Moves.x(moves[i]);
+            int y = Moves.y(moves[i]);
+            // Coup hors de l'escalier, ou case empoisonnée avant la fin
+            if (x >= width || y >= heights[x] || (x == 0 && y == 0 && i != count - 1)) {
+                return false;
+            }
+
+            int move = Moves.pack(x, y, (i % 2 == 0) ? 1 : 2);
+            history.append(move, heights);
+            for (int c = x; c < width && heights[c] > y; c++) {
+                heights[c] = y;
+            }
+            history.checkpoint(i, heights);
+            if (i == index) {
+                atIndex = heights.clone();
             }
         }
+        if (expected != null && !Arrays.equals(expected, atIndex)) {
+            return false;
+        }
+
+        columnHeights = atIndex;
+        changed(0, width);
+        remainingCells = 0;
+        for (int h : columnHeights) {
+            remainingCells += h;
+        }
+        positionHash = PositionHash.of(columnHeights);
+        moveHistory = history;
+        currentMoveIndex = index;
+        restoreTurnState();
+        publish();
+        return true;
+    }
 
+    // Joueur courant et fin de partie d'après le dernier coup joué
+    private void restoreTurnState() {
         gameOver = false;
         winner = 0;
 
-        // Rejouer tous les coups jusqu'à l'index actuel
-        for (int i = 0; i <= currentMoveIndex; i++) {
-            Move move = moveHistory.get(i);
-            applyMove(move);
+        if (currentMoveIndex >= 0) {
+            int lastMove = moveHistory.get(currentMoveIndex);
+            currentPlayer = (Moves.player(lastMove) == 1) ? 2 : 1;
 
             // Vérifier si le dernier coup est la case empoisonnée
-            if (i == currentMoveIndex && move.getX() == 0 && move.getY() == 0) {
+            if (Moves.isPoison(lastMove)) {
                 gameOver = true;
-                winner = (move.getPlayer() == 1) ? 2 : 1;
+                winner = currentPlayer;
             }
-        }
-
-        // Définir le joueur courant
-        if (currentMoveIndex >= 0) {
-            Move lastMove = moveHistory.get(currentMoveIndex);
-            currentPlayer = (lastMove.getPlayer() == 1) ? 2 : 1;
         } else {
             currentPlayer = 1;  // Le joueur 1 commence par défaut
         }
     }
 
-    public Move getHint() {
+    // Meilleur coup connu pour le joueur courant, avec l'évaluation de la position (voir HintService)
+    public Hint getHint() {
         if (gameOver) {
             return null;
         }
@@ -201,7 +382,7 @@ public class WaffleModel implements Serializable {
             return null;
         }
         hintsRemaining[idx]--;
-        return aiPlayer.makeMove(3); // Utiliser l'IA de niveau avancé pour obtenir un bon coup
+        return HintService.shared().hint(width, height, positionHash, columnHeights, hintPlayer);
     }
 
     // New method to get AI move without automatically applying it
@@ -212,10 +393,53 @@ public class WaffleModel implements Serializable {
         return aiPlayer.makeMove(aiLevel);
     }
 
+    // Coup de l'IA pour une copie de la position (voir getColumnHeights), à appeler depuis
+    // un fil de calcul : la partie peut évoluer pendant la réflexion. Un seul appel à la fois.
+    public Move getAIMove(int[] position, int level) {
+        return aiPlayer.makeMove(level, position);
+    }
+
+    // Même chose à partir d'une photo (voir getState), sans copie des hauteurs
+    public Move getAIMove(GameState position, int level) {
+        return aiPlayer.makeMove(level, position.heightsView());
+    }
+
     // Getters et setters
 
+    // Photo immuable de la partie après le dernier changement, sans verrou ni copie : c'est ce
+    // que doivent lire les autres fils (IA, sauvegarde, spectateurs), jamais les champs vivants
+    public GameState getState() {
+        return state;
+    }
+
+    // Vue de compatibilité sous forme de grille (true = case présente), recalculée à chaque appel.
+    // Préférer getColumnHeights() ou getColumnHeight().
     public boolean[][] getWaffle() {
-        return waffle;
+        return getState().getWaffle();
+    }
+
+    // Copie des hauteurs de colonnes
+    public int[] getColumnHeights() {
+        return columnHeights.clone();
+    }
+
+    // Hauteurs internes, sans copie, pour l'IA : ne pas modifier
+    int[] columnHeightsView() {
+        return columnHeights;
+    }
+
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    public int getRemainingCells() {
+        return remainingCells;
+    }
+
+    // Clé 64 bits de la position (voir PositionHash), pour indexer caches et tables
+    // sans relire la gaufre. Ne dépend que de l'escalier, pas de la partie.
+    public long getPositionHash() {
+        return positionHash;
     }
 
     public int getWidth() {
@@ -243,16 +467,55 @@ public class WaffleModel implements Serializable {
     }
 
     public void setAILevel(int level) {
-        if (level >= 1 && level <= 3) {
+        if (level >= 1 && level <= 5) {
             aiLevel = level;
         }
     }
 
+    // Niveau et temps de réflexion accordé aux recherches (niveaux 4 et 5)
+    public void setAILevel(int level, long thinkMillis) {
+        setAILevel(level);
+        aiPlayer.setThinkMillis(thinkMillis);
+    }
+
+    public long getAIThinkMillis() {
+        return aiPlayer.getThinkMillis();
+    }
+
+    // Mémoire allouée à la table de transposition du niveau expert
+    public void setSearchMemoryMegabytes(int megabytes) {
+        aiPlayer.setSearchMemoryMegabytes(megabytes);
+    }
+
+    // Fils de la recherche Monte-Carlo (niveau 5) : 1 quand plusieurs parties se partagent la machine
+    public void setSearchThreads(int threads) {
+        aiPlayer.setSearchThreads(threads);
+    }
+
     public int getHintsRemaining() {
         return hintsRemaining[currentPlayer - 1];
     }
 
+    // Indices restants d'un joueur donné (1 ou 2), pour la sauvegarde
+    int getHintsRemaining(int player) {
+        return hintsRemaining[player - 1];
+    }
+
+    void setHintsRemaining(int player, int hints) {
+        hintsRemaining[player - 1] = Math.max(0, Math.min(MAX_HINTS, hints));
+    }
+
+    public int getAILevel() {
+        return aiLevel;
+    }
+
+    // Vue en lecture seule de l'historique
     public List<Move> getMoveHistory() {
+        return moveHistory.asList();
+    }
+
+    // Historique compact (coups codés), pour la recherche et la simulation
+    public MoveHistory getHistory() {
         return moveHistory;
     }
 
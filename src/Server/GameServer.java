@@ -0,0 +1,146 @@
+package Server;
+
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameServer implements AutoCloseable {
+    // Serveur de parties sans interface : un fil virtuel par connexion (les lectures
+    // bloquantes ne coûtent qu'un peu de mémoire), une partie indépendante par connexion,
+    // et des coups d'IA calculés sur un nombre borné de fils de calcul partagés.
+    public static final int DEFAULT_PORT = 7474;
+    public static final long DEFAULT_THINK_MILLIS = 50;
+
+    // Mémoire de la table de transposition (niveau 4) d'une session : des milliers de
+    // parties se partagent la machine
+    static final int SEARCH_MEMORY_MB = 1;
+
+    // STATS précédé d'un GC complet : réservé au serveur de mesure lancé par LoadGenerator.
+    // Sinon n'importe quel client pourrait enchaîner les GC complets et bloquer toutes les sessions.
+    public static final String GC_STATS_PROPERTY = "waffle.server.gcStats";
+    private static final boolean GC_STATS = Boolean.getBoolean(GC_STATS_PROPERTY);
+
+    static final LatencyHistogram MOVE_LATENCY = MetricsRegistry.histogram("server.move");
+
+    private final ServerSocket socket;
+    private final ExecutorService aiPool;
+    private final long thinkMillis;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+    private final Map<Integer, SpectatorFeed> feeds = new ConcurrentHashMap<>();  // parties en cours, par session
+    private Thread acceptor;
+
+    // Usage : GameServer [port] [fils de calcul de l'IA] [réflexion ms]
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int aiThreads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long thinkMillis = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_THINK_MILLIS;
+
+        GameServer server = new GameServer(port, aiThreads, thinkMillis);
+        server.start();
+        System.out.println("Serveur de gaufres sur le port " + server.getPort()
+                + " (" + aiThreads + " fils de calcul pour l'IA)");
+    }
+
+    public GameServer(int port, int aiThreads, long thinkMillis) throws IOException {
+        this.socket = new ServerSocket();
+        this.socket.bind(new InetSocketAddress(port), 4096);
+        this.thinkMillis = thinkMillis;
+        this.aiPool = Executors.newFixedThreadPool(Math.max(1, aiThreads), runnable -> {
+            Thread thread = new Thread(runnable, "waffle-server-ai");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        acceptor = Thread.ofPlatform().name("waffle-server-accept").start(this::acceptLoop);
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connection.setTcpNoDelay(true);  // trames de quelques octets : pas d'attente de Nagle
+                Session session = new Session(this, connection, nextSessionId.incrementAndGet());
+                Thread.ofVirtual().name("waffle-session-" + session.getId()).start(session);
+            } catch (SocketException e) {
+                return;  // serveur fermé
+            } catch (IOException e) {
+                System.err.println("Connexion refusée : " + e.getMessage());
+            }
+        }
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    ExecutorService getAIPool() {
+        return aiPool;
+    }
+
+    long getThinkMillis() {
+        return thinkMillis;
+    }
+
+    // Flux de la partie d'une session, pour ses spectateurs (null si elle n'a pas de partie)
+    public SpectatorFeed getFeed(int sessionId) {
+        return feeds.get(sessionId);
+    }
+
+    void register(int sessionId, SpectatorFeed feed) {
+        feeds.put(sessionId, feed);
+    }
+
+    void unregister(int sessionId) {
+        feeds.remove(sessionId);
+    }
+
+    void sessionOpened() {
+        sessions.incrementAndGet();
+    }
+
+    void sessionClosed() {
+        sessions.decrementAndGet();
+    }
+
+    // Mémoire utilisée, sans GC : une simple lecture. Avec GC_STATS_PROPERTY, mesurée après un
+    // GC complet : comparée à vide et sous charge, elle donne le coût d'une session (voir LoadGenerator)
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        if (GC_STATS) {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        aiPool.shutdownNow();
+        if (acceptor != null) {
+            try {
+                acceptor.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package Server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LoadGenerator {
+    // Ouvre des milliers de sessions simultanées, chacune jouant des parties contre l'IA du
+    // serveur, puis rapporte la latence des coups vue du client et la mémoire par session.
+    // Sans hôte, le serveur est lancé dans un processus fils (même classpath) : sa mémoire
+    // n'est pas mêlée à celle des clients, et lui seul mesure après un GC complet.
+    // Avec un hôte, la mémoire rapportée est celle du tas sans GC, donc approximative.
+    private static final Pattern PORT = Pattern.compile("port (\\d+)");
+
+    // Usage : LoadGenerator [sessions] [durée s] [niveau] [taille] [hôte:port]
+    public static void main(String[] args) throws Exception {
+        int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+        long seconds = (args.length > 1) ? Long.parseLong(args[1]) : 30;
+        int level = (args.length > 2) ? Integer.parseInt(args[2]) : 2;
+        String[] size = ((args.length > 3) ? args[3] : "6x8").split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+
+        Process child = null;
+        String host = "localhost";
+        int port;
+        if (args.length > 4) {
+            String[] address = args[4].split(":");
+            host = address[0];
+            port = Integer.parseInt(address[1]);
+        } else {
+            child = spawnServer();
+            port = readPort(child);
+        }
+
+        try {
+            run(host, port, sessions, seconds, level, width, height);
+        } finally {
+            if (child != null) {
+                child.destroy();
+            }
+        }
+    }
+
+    private static Process spawnServer() throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                "-D" + GameServer.GC_STATS_PROPERTY + "=true", "Server.GameServer", "0"));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+        return process;
+    }
+
+    private static int readPort(Process server) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        Matcher matcher = (line != null) ? PORT.matcher(line) : null;
+        if (matcher == null || !matcher.find()) {
+            throw new IOException("Le serveur n'a pas démarré : " + line);
+        }
+        System.out.println(line);
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    static void run(String host, int port, int sessions, long seconds, int level, int width, int height)
+            throws IOException, InterruptedException {
+        long baseline;
+        try (Client probe = new Client(host, port)) {
+            baseline = probe.stats()[1];
+        }
+
+        // Toutes les sessions sont ouvertes (partie commencée) avant de mesurer la mémoire,
+        // puis jouent ensemble jusqu'à l'échéance
+        // Latences gardées par client puis triées à la fin : mesurées même sans -Dwaffle.metrics
+        Queue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong games = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch opened = new CountDownLatch(sessions);
+        CountDownLatch measured = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(sessions);
+        long[] deadline = new long[1];
+
+        long openStart = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            long seed = i;
+            Thread.ofVirtual().start(() -> {
+                boolean counted = false;
+                try (Client client = new Client(host, port)) {
+                    client.newGame(width, height, level);
+                    opened.countDown();
+                    counted = true;
+                    measured.await();
+                    SplittableRandom random = new SplittableRandom(seed);
+                    while (System.nanoTime() < deadline[0]) {
+                        client.playGame(width, height, level, random);
+                        games.incrementAndGet();
+                    }
+                    latencies.add(client.getLatencies());
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (!counted) {
+                        opened.countDown();
+                    }
+                    finished.countDown();
+                }
+            });
+        }
+        opened.await();
+        long openMillis = (System.nanoTime() - openStart) / 1_000_000;
+
+        long[] stats;
+        try (Client probe = new Client(host, port)) {
+            stats = probe.stats();
+        }
+        int open = (int) stats[0] - 1;  // sans la connexion de mesure
+        System.out.println(open + " sessions ouvertes en " + openMillis + " ms ("
+                + failures.get() + " échecs)");
+        if (open > 0) {
+            System.out.printf("Mémoire du serveur : %.1f Mo à vide, %.1f Mo chargé, %.1f Ko par session%n",
+                    baseline / 1e6, stats[1] / 1e6, (stats[1] - baseline) / 1e3 / open);
+        }
+
+        deadline[0] = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long playStart = System.nanoTime();
+        measured.countDown();
+        finished.await();
+        double elapsed = (System.nanoTime() - playStart) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d parties, %d coups en %.1f s (%.0f coups/s)%n",
+                games.get(), all.length, elapsed, all.length / elapsed);
+        if (all.length > 0) {
+            System.out.printf("Latence d'un coup (aller-retour, réponse de l'IA comprise) : p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(all, 50) / 1e6, percentile(all, 99) / 1e6, all[all.length - 1] / 1e6);
+        }
+        if (failures.get() > 0) {
+            System.out.println(failures.get() + " sessions en échec");
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p / 100 * sorted.length) - 1)];
+    }
+
+    // Un client : connexion bloquante (sur fil virtuel) et copie locale de la gaufre
+    private static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private int[] heights;
+        private long[] latencies = new long[64];
+        private int moves;
+
+        Client(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 256));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 256));
+        }
+
+        void newGame(int width, int height, int level) throws IOException {
+            Protocol.writeNewGame(out, width, height, level);
+            out.flush();
+            expect(Protocol.GAME);
+            in.readInt();
+            heights = new int[width];
+            Arrays.fill(heights, height);
+        }
+
+        // Joue une partie entière, au hasard en évitant la case empoisonnée tant que possible
+        void playGame(int width, int height, int level, SplittableRandom random) throws IOException {
+            if (heights == null || heights[0] == 0) {
+                newGame(width, height, level);
+            }
+            while (heights[0] > 0) {
+                int x;
+                int y;
+                if (heights[0] == 1 && (width == 1 || heights[1] == 0)) {
+                    x = 0;
+                    y = 0;
+                } else {
+                    do {
+                        x = random.nextInt(width);
+                    } while (heights[x] == 0);
+                    y = random.nextInt(heights[x]);
+                    if (x == 0 && y == 0) {
+                        continue;
+                    }
+                }
+
+                long start = System.nanoTime();
+                Protocol.writeMove(out, x, y);
+                out.flush();
+                readMoved();
+                if (heights[0] > 0 && level > 0) {
+                    readMoved();
+                }
+                if (moves == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, 2 * moves);
+                }
+                latencies[moves++] = System.nanoTime() - start;
+            }
+            expect(Protocol.OVER);
+            in.readUnsignedByte();
+        }
+
+        private void readMoved() throws IOException {
+            expect(Protocol.MOVED);
+            in.readUnsignedByte();
+            int x = in.readUnsignedShort();
+            int y = in.readUnsignedShort();
+            for (int i = x; i < heights.length && heights[i] > y; i++) {
+                heights[i] = y;
+            }
+        }
+
+        long[] getLatencies() {
+            return Arrays.copyOf(latencies, moves);
+        }
+
+        long[] stats() throws IOException {
+            out.writeByte(Protocol.STATS);
+            out.flush();
+            expect(Protocol.STATS_REPLY);
+            return new long[]{in.readInt(), in.readLong()};
+        }
+
+        private void expect(int type) throws IOException {
+            int received = in.readUnsignedByte();
+            if (received == Protocol.ERROR) {
+                throw new IOException("Erreur du serveur : " + in.readUnsignedByte());
+            }
+            if (received != type) {
+                throw new IOException("Trame inattendue : " + received);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.writeByte(Protocol.QUIT);
+                out.flush();
+            } finally {
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package Server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public final class Protocol {
+    // Protocole binaire du serveur, big-endian : une trame = un octet de type + ses champs.
+    // Un coup tient en 5 octets (type, x, y sur 16 bits) ; la réponse de l'IA arrive dans
+    // le même envoi que l'écho du coup du joueur.
+    //
+    // Client -> serveur
+    //   NEW_GAME  largeur (u16) | hauteur (u16) | niveau de l'IA (u8, 0 = deux joueurs humains)
+    //   MOVE      x (u16) | y (u16)
+    //   WATCH     numéro de session (int) : la connexion devient spectatrice de cette partie
+    //   STATS     -
+    //   QUIT      -
+    // Serveur -> client
+    //   GAME      numéro de session (int)
+    //   MOVED     joueur (u8) | x (u16) | y (u16)    pour chaque coup joué, humain ou IA
+    //   OVER      gagnant (u8)
+    //   ERROR     code (u8)
+    //   STATS_REPLY  sessions ouvertes (int) | mémoire utilisée (long, octets ; après GC seulement si le
+    //                serveur a été lancé avec -Dwaffle.server.gcStats=true, voir GameServer)
+    // Serveur -> spectateur
+    //   SNAPSHOT  séquence (int) | largeur (u16) | hauteur (u16) | escalier ((largeur + hauteur + 7) / 8 octets)
+    //   DELTA     séquence (int) | joueur (u8) | x (u16) | y (u16)
+    // Les séquences sont les 32 bits de poids faible de celles de SpectatorFeed : un DELTA
+    // suit le précédent événement de 1, un SNAPSHOT remplace tout ce qui a été manqué.
+    public static final int NEW_GAME = 0x01;
+    public static final int MOVE = 0x02;
+    public static final int WATCH = 0x03;
+    public static final int STATS = 0x05;
+    public static final int QUIT = 0x06;
+
+    public static final int GAME = 0x81;
+    public static final int MOVED = 0x82;
+    public static final int OVER = 0x83;
+    public static final int ERROR = 0x84;
+    public static final int STATS_REPLY = 0x85;
+    public static final int SNAPSHOT = 0x86;
+    public static final int DELTA = 0x87;
+
+    // Codes d'erreur
+    public static final int BAD_REQUEST = 1;
+    public static final int ILLEGAL_MOVE = 2;
+    public static final int NO_GAME = 3;
+    public static final int AI_FAILED = 4;
+
+    // Taille maximale des gaufres hébergées : une partie entre humains ne garde que les
+    // hauteurs de colonnes et l'historique, quelques octets par colonne
+    public static final int MAX_SIDE = 4096;
+    // Contre l'IA, la recherche alloue des tampons proportionnels au nombre de cases
+    // (historique des coups, clés, coups possibles) : la gaufre est bornée en cases
+    public static final int MAX_AI_CELLS = 1 << 16;
+
+    private Protocol() {
+    }
+
+    public static void writeNewGame(DataOutputStream out, int width, int height, int level) throws IOException {
+        out.writeByte(NEW_GAME);
+        out.writeShort(width);
+        out.writeShort(height);
+        out.writeByte(level);
+    }
+
+    public static void writeMove(DataOutputStream out, int x, int y) throws IOException {
+        out.writeByte(MOVE);
+        out.writeShort(x);
+        out.writeShort(y);
+    }
+
+    public static void writeMoved(DataOutputStream out, int player, int x, int y) throws IOException {
+        out.writeByte(MOVED);
+        out.writeByte(player);
+        out.writeShort(x);
+        out.writeShort(y);
+    }
+
+    public static void writeSnapshot(DataOutputStream out, long sequence, int width, int height, int[] heights)
+            throws IOException {
+        out.writeByte(SNAPSHOT);
+        out.writeInt((int) sequence);
+        out.writeShort(width);
+        out.writeShort(height);
+        writeStaircase(out, heights, height);
+    }
+
+    public static void writeDelta(DataOutputStream out, long sequence, int player, int x, int y) throws IOException {
+        out.writeByte(DELTA);
+        out.writeInt((int) sequence);
+        out.writeByte(player);
+        out.writeShort(x);
+        out.writeShort(y);
+    }
+
+    // Même codage de l'escalier que les sauvegardes (voir Model.GameFile) : pour chaque
+    // colonne, un bit 0 par ligne descendue depuis la précédente puis un bit 1
+    private static void writeStaircase(DataOutputStream out, int[] heights, int height) throws IOException {
+        byte[] bits = new byte[(heights.length + height + 7) / 8];
+        int bit = 0;
+        int previous = height;
+        for (int h : heights) {
+            bit += previous - h;
+            bits[bit >>> 3] |= (byte) (1 << (bit & 7));
+            bit++;
+            previous = h;
+        }
+        out.write(bits);
+    }
+
+    public static int[] readStaircase(DataInputStream in, int width, int height) throws IOException {
+        byte[] bits = new byte[(width + height + 7) / 8];
+        in.readFully(bits);
+        int[] heights = new int[width];
+        int h = height;
+        int x = 0;
+        for (int i = 0; i < width + height && x < width; i++) {
+            if ((bits[i >>> 3] & (1 << (i & 7))) != 0) {
+                heights[x++] = h;
+            } else if (--h < 0) {
+                throw new IOException("Escalier invalide");
+            }
+        }
+        if (x < width) {
+            throw new IOException("Escalier invalide");
+        }
+        return heights;
+    }
+}
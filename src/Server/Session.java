@@ -0,0 +1,228 @@
+package Server;
+
+import Metrics.MetricsRegistry;
+import Model.GameState;
+import Model.Move;
+import Model.WaffleModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+final class Session implements Runnable {
+    // Une connexion et sa partie, sur son propre fil virtuel : lit une requête, répond,
+    // recommence. Seul le calcul des coups de l'IA quitte ce fil, pour le pool borné du serveur.
+    // Chaque coup est aussi publié aux spectateurs de la partie (voir SpectatorFeed).
+    private static final int BUFFER_SIZE = 512;  // des trames de quelques octets
+    private static final long SPECTATOR_POLL_MILLIS = 1000;
+
+    private final GameServer server;
+    private final Socket socket;
+    private final int id;
+
+    private WaffleModel model;
+    private int level;
+    private SpectatorFeed feed;
+
+    Session(GameServer server, Socket socket, int id) {
+        this.server = server;
+        this.socket = socket;
+        this.id = id;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    @Override
+    public void run() {
+        server.sessionOpened();
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            while (true) {
+                int type = in.read();
+                if (type < 0 || type == Protocol.QUIT) {
+                    return;
+                }
+                boolean open = handle(type, in, out);
+                out.flush();
+                if (!open) {
+                    return;
+                }
+            }
+        } catch (EOFException e) {
+            // Client parti au milieu d'une trame
+        } catch (IOException e) {
+            // Connexion coupée : la partie disparaît avec elle
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (feed != null) {
+                server.unregister(id);
+                feed.close();
+            }
+            server.sessionClosed();
+        }
+    }
+
+    // false : la connexion se termine après cette requête
+    private boolean handle(int type, DataInputStream in, DataOutputStream out) throws IOException, InterruptedException {
+        switch (type) {
+            case Protocol.NEW_GAME -> {
+                int width = in.readUnsignedShort();
+                int height = in.readUnsignedShort();
+                int requestedLevel = in.readUnsignedByte();
+                if (width < 1 || height < 1 || width > Protocol.MAX_SIDE || height > Protocol.MAX_SIDE
+                        || requestedLevel > 5 || (requestedLevel > 0 && width * height > Protocol.MAX_AI_CELLS)) {
+                    error(out, Protocol.BAD_REQUEST);
+                    return true;
+                }
+                newGame(width, height, requestedLevel);
+                out.writeByte(Protocol.GAME);
+                out.writeInt(id);
+            }
+            case Protocol.MOVE -> {
+                int x = in.readUnsignedShort();
+                int y = in.readUnsignedShort();
+                long start = MetricsRegistry.start();
+                play(x, y, out);
+                GameServer.MOVE_LATENCY.recordSince(start);
+            }
+            case Protocol.WATCH -> {
+                SpectatorFeed watched = server.getFeed(in.readInt());
+                if (watched == null) {
+                    error(out, Protocol.NO_GAME);
+                    return true;
+                }
+                watch(watched, in, out);
+                return false;  // la connexion se termine avec la diffusion
+            }
+            case Protocol.STATS -> {
+                out.writeByte(Protocol.STATS_REPLY);
+                out.writeInt(server.getSessionCount());
+                out.writeLong(GameServer.usedMemory());
+            }
+            default -> {
+                // Trame inconnue : la suite du flux ne peut plus être découpée
+                error(out, Protocol.BAD_REQUEST);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void newGame(int width, int height, int requestedLevel) {
+        // Même dimensions : la partie est réinitialisée sur place, sans nouvelle allocation d'IA
+        if (model == null || model.getWidth() != width || model.getHeight() != height) {
+            model = new WaffleModel(width, height);
+            model.setSearchMemoryMegabytes(GameServer.SEARCH_MEMORY_MB);
+            model.setSearchThreads(1);  // le parallélisme vient des sessions, sur le pool borné
+        } else {
+            model.initGame();
+        }
+        level = requestedLevel;
+        if (level > 0) {
+            model.setAILevel(level, server.getThinkMillis());
+        }
+        if (feed == null) {
+            feed = new SpectatorFeed(width, height);
+            server.register(id, feed);
+        } else {
+            feed.reset(width, height);
+        }
+    }
+
+    private void play(int x, int y, DataOutputStream out) throws IOException, InterruptedException {
+        if (model == null || model.isGameOver()) {
+            error(out, Protocol.NO_GAME);
+            return;
+        }
+        int player = model.getCurrentPlayer();
+        if (!model.makeMove(x, y)) {
+            error(out, Protocol.ILLEGAL_MOVE);
+            return;
+        }
+        Protocol.writeMoved(out, player, x, y);
+        feed.publish(player, x, y);
+
+        // L'IA joue le joueur 2
+        if (level > 0 && !model.isGameOver()) {
+            Move reply = computeAIMove();
+            if (reply == null || !model.makeMove(reply.getX(), reply.getY())) {
+                error(out, Protocol.AI_FAILED);
+                return;
+            }
+            Protocol.writeMoved(out, 2, reply.getX(), reply.getY());
+            feed.publish(2, reply.getX(), reply.getY());
+        }
+        if (model.isGameOver()) {
+            out.writeByte(Protocol.OVER);
+            out.writeByte(model.getWinner());
+        }
+    }
+
+    // Diffuse la partie jusqu'à sa fin ou au départ du spectateur. Un second fil virtuel lit
+    // la connexion : QUIT ou fermeture mettent fin à l'abonnement sans attendre le prochain coup.
+    private static void watch(SpectatorFeed watched, DataInputStream in, DataOutputStream out)
+            throws IOException, InterruptedException {
+        Subscription subscription = watched.subscribe(SpectatorFeed.DEFAULT_BUFFER);
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try {
+                int type;
+                while ((type = in.read()) >= 0 && type != Protocol.QUIT && !subscription.isClosed()) {
+                    // Rien d'autre n'est attendu d'un spectateur
+                }
+            } catch (IOException e) {
+                // Connexion coupée
+            } finally {
+                subscription.close();
+            }
+        });
+
+        SpectatorListener writer = new SpectatorListener() {
+            @Override
+            public void onSnapshot(long sequence, int width, int height, int[] heights) throws IOException {
+                Protocol.writeSnapshot(out, sequence, width, height, heights);
+            }
+
+            @Override
+            public void onMove(long sequence, int player, int x, int y) throws IOException {
+                Protocol.writeDelta(out, sequence, player, x, y);
+            }
+        };
+        try {
+            // Un envoi par lot : tous les événements en attente partent ensemble
+            while (subscription.deliver(writer, SPECTATOR_POLL_MILLIS)) {
+                out.flush();
+            }
+            out.flush();
+        } finally {
+            subscription.close();
+            reader.interrupt();
+        }
+    }
+
+    // Le fil virtuel attend (sans occuper de fil système) que le pool borné ait calculé le coup
+    private Move computeAIMove() throws InterruptedException {
+        GameState position = model.getState();
+        Future<Move> reply = server.getAIPool().submit(() -> model.getAIMove(position, level));
+        try {
+            return reply.get();
+        } catch (ExecutionException e) {
+            System.err.println("Erreur de l'IA (session " + id + ") : " + e.getCause());
+            return null;
+        }
+    }
+
+    private static void error(DataOutputStream out, int code) throws IOException {
+        out.writeByte(Protocol.ERROR);
+        out.writeByte(code);
+    }
+}
@@ -0,0 +1,113 @@
+package Server;
+
+import Model.Moves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class SpectatorFeed {
+    // Diffusion d'une partie à ses spectateurs : chaque coup est publié sous forme d'un
+    // delta (le coup et son numéro de séquence) déposé dans le tampon borné de chaque
+    // abonné, sans jamais attendre un abonné. Un abonné qui arrive, ou dont le tampon
+    // déborde, reçoit à la place un état complet de la gaufre, puis les coups suivants.
+    public static final int DEFAULT_BUFFER = 256;
+
+    // Protégés par this
+    private int width;
+    private int height;
+    private int[] heights;
+    private long sequence;  // numéro du dernier événement (coup ou nouvelle partie)
+    private boolean closed;
+    private final List<Subscription> subscribers = new ArrayList<>();
+
+    public SpectatorFeed(int width, int height) {
+        start(width, height);
+    }
+
+    private void start(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.heights = new int[width];
+        Arrays.fill(heights, height);
+    }
+
+    // Coup joué dans la partie ; à appeler après WaffleModel.makeMove. Ne bloque jamais :
+    // coût d'un dépôt dans chaque tampon.
+    public synchronized void publish(int player, int x, int y) {
+        for (int i = x; i < width && heights[i] > y; i++) {
+            heights[i] = y;
+        }
+        sequence++;
+        int move = Moves.pack(x, y, player);
+        for (Subscription subscriber : subscribers) {
+            subscriber.offer(sequence, move);
+        }
+    }
+
+    // Nouvelle partie : les abonnés recevront le nouvel état complet
+    public synchronized void reset(int width, int height) {
+        start(width, height);
+        sequence++;
+        for (Subscription subscriber : subscribers) {
+            subscriber.requestSnapshot();
+        }
+    }
+
+    // Le premier événement remis à l'abonné est l'état actuel de la gaufre
+    public synchronized Subscription subscribe(int capacity) {
+        Subscription subscription = new Subscription(this, capacity);
+        if (closed) {
+            subscription.end();
+        } else {
+            subscribers.add(subscription);
+        }
+        return subscription;
+    }
+
+    synchronized void unsubscribe(Subscription subscription) {
+        subscribers.remove(subscription);
+    }
+
+    // Fin de la partie hébergée : les abonnés reçoivent ce qui reste dans leur tampon, puis s'arrêtent
+    public synchronized void close() {
+        closed = true;
+        for (Subscription subscriber : subscribers) {
+            subscriber.end();
+        }
+        subscribers.clear();
+    }
+
+    // Appelé par un abonné, verrou du flux tenu : copie de l'état courant
+    int[] copyHeights(int[] into) {
+        if (into == null || into.length != width) {
+            into = new int[width];
+        }
+        System.arraycopy(heights, 0, into, 0, width);
+        return into;
+    }
+
+    int getWidthLocked() {
+        return width;
+    }
+
+    int getHeightLocked() {
+        return height;
+    }
+
+    long getSequenceLocked() {
+        return sequence;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized int[] getColumnHeights() {
+        return heights.clone();
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+}
@@ -0,0 +1,13 @@
+package Server;
+
+import java.io.IOException;
+
+public interface SpectatorListener {
+    // État complet de la gaufre après l'événement sequence : à l'abonnement, après une
+    // nouvelle partie, ou à la place des coups qu'un spectateur trop lent a manqués.
+    // heights n'est valable que pendant l'appel.
+    void onSnapshot(long sequence, int width, int height, int[] heights) throws IOException;
+
+    // Coup sequence, qui suit immédiatement l'événement précédent
+    void onMove(long sequence, int player, int x, int y) throws IOException;
+}
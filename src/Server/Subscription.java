@@ -0,0 +1,137 @@
+package Server;
+
+import Model.Moves;
+
+import java.io.IOException;
+
+public final class Subscription implements AutoCloseable {
+    // Tampon d'un spectateur : les coups en attente dans un anneau de taille fixe. Quand
+    // l'anneau est plein, il est vidé et remplacé par une demande d'état complet : un
+    // spectateur lent reçoit moins de messages, jamais un tampon qui grossit, et la partie
+    // n'attend pas. Un seul fil consomme (voir deliver).
+    private final SpectatorFeed feed;
+
+    // Protégés par this ; les coups de l'anneau ont des numéros consécutifs à partir de first
+    private final int[] moves;
+    private int head;
+    private int count;
+    private long first;
+    private boolean snapshotPending = true;
+    private boolean closed;
+    private long coalesced;  // débordements remplacés par un état complet
+
+    // Propres au fil consommateur
+    private final int[] batch;
+    private int[] snapshot;
+
+    Subscription(SpectatorFeed feed, int capacity) {
+        this.feed = feed;
+        this.moves = new int[Math.max(1, capacity)];
+        this.batch = new int[moves.length];
+    }
+
+    // Appelé par le flux, verrou du flux tenu
+    synchronized void offer(long sequence, int move) {
+        if (closed || snapshotPending) {
+            return;  // l'état complet à venir contiendra ce coup
+        }
+        if (count == moves.length) {
+            count = 0;
+            snapshotPending = true;
+            coalesced++;
+            return;  // le consommateur, ayant des coups en attente, n'attend pas
+        }
+        moves[(head + count) % moves.length] = move;
+        if (count++ == 0) {
+            first = sequence;
+            notifyAll();  // seul un tampon vide peut avoir un consommateur en attente
+        }
+    }
+
+    // Appelé par le flux, verrou du flux tenu
+    synchronized void requestSnapshot() {
+        count = 0;
+        snapshotPending = true;
+        notifyAll();
+    }
+
+    // Remet à listener tout ce qui est en attente (état complet d'abord, s'il y a lieu), en
+    // attendant au plus timeoutMillis qu'il arrive quelque chose. Retourne false une fois
+    // l'abonnement fermé et vidé. listener est appelé hors de tout verrou.
+    public boolean deliver(SpectatorListener listener, long timeoutMillis) throws IOException, InterruptedException {
+        boolean takeSnapshot;
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (!snapshotPending && count == 0 && !closed) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return true;
+                }
+                wait(remaining);
+            }
+            if (!snapshotPending && count == 0) {
+                return false;
+            }
+            takeSnapshot = snapshotPending;
+        }
+
+        if (takeSnapshot) {
+            long sequence;
+            int width;
+            int height;
+            // Même ordre de verrous que publish : les coups suivants auront un numéro plus grand
+            synchronized (feed) {
+                synchronized (this) {
+                    snapshot = feed.copyHeights(snapshot);
+                    sequence = feed.getSequenceLocked();
+                    width = feed.getWidthLocked();
+                    height = feed.getHeightLocked();
+                    snapshotPending = false;
+                    count = 0;
+                }
+            }
+            listener.onSnapshot(sequence, width, height, snapshot);
+        }
+
+        int taken;
+        long sequence;
+        synchronized (this) {
+            if (snapshotPending) {
+                return true;  // débordé entre-temps : le prochain appel remettra un état complet
+            }
+            taken = count;
+            sequence = first;
+            for (int i = 0; i < taken; i++) {
+                batch[i] = moves[(head + i) % moves.length];
+            }
+            head = (head + taken) % moves.length;
+            count = 0;
+        }
+        for (int i = 0; i < taken; i++) {
+            int move = batch[i];
+            listener.onMove(sequence + i, Moves.player(move), Moves.x(move), Moves.y(move));
+        }
+        return true;
+    }
+
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Désabonne ; le consommateur reçoit encore ce qui est en attente
+    @Override
+    public void close() {
+        feed.unsubscribe(this);
+        end();
+    }
+
+    // Appelé par le flux à sa fermeture
+    synchronized void end() {
+        closed = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,77 @@
+package Tools;
+
+import Model.AnalyticSolver;
+import Model.Hint;
+import Model.Moves;
+import Model.RetrogradeSolver;
+import Model.StaircaseRanker;
+
+import java.util.Arrays;
+
+public class AnalyticSolverCheck {
+    // Usage : AnalyticSolverCheck [côté max]
+    // Compare AnalyticSolver à la résolution exhaustive (RetrogradeSolver) sur toutes les
+    // positions de toutes les gaufres jusqu'à côté max x côté max (9 par défaut) : chaque
+    // position reconnue doit avoir la bonne valeur, et son coup gagnant doit laisser une
+    // position perdante.
+    public static void main(String[] args) {
+        int maxSide = (args.length > 0) ? Integer.parseInt(args[0]) : 9;
+
+        long positions = 0;
+        long recognized = 0;
+        long errors = 0;
+        for (int width = 1; width <= maxSide; width++) {
+            for (int height = 1; height <= maxSide; height++) {
+                RetrogradeSolver table = new RetrogradeSolver(width, height);
+                StaircaseRanker ranker = new StaircaseRanker(width, height);
+                int[] heights = new int[width];
+                int[] after = new int[width];
+                do {
+                    positions++;
+                    int evaluation = AnalyticSolver.evaluate(heights);
+                    int move = AnalyticSolver.findMove(heights);
+                    if (evaluation == Hint.UNKNOWN) {
+                        if (move != AnalyticSolver.NONE) {
+                            errors += report(width, height, heights, "coup proposé sans évaluation");
+                        }
+                        continue;
+                    }
+                    recognized++;
+                    boolean winning = table.isWinning(heights);
+                    if (winning != (evaluation == Hint.WINNING)) {
+                        errors += report(width, height, heights, "évaluation fausse");
+                        continue;
+                    }
+                    if (heights[0] == 0) {
+                        continue;  // gaufre vide : pas de coup
+                    }
+
+                    int x = Moves.x(move);
+                    int y = Moves.y(move);
+                    if (move == AnalyticSolver.NONE || x >= width || y >= heights[x]) {
+                        errors += report(width, height, heights, "coup illégal " + x + "," + y);
+                        continue;
+                    }
+                    System.arraycopy(heights, 0, after, 0, width);
+                    for (int i = x; i < width && after[i] > y; i++) {
+                        after[i] = y;
+                    }
+                    if (winning && table.isWinning(after)) {
+                        errors += report(width, height, heights, "coup " + x + "," + y + " non gagnant");
+                    }
+                } while (ranker.next(heights));
+            }
+        }
+
+        System.out.printf("%d positions jusqu'à %dx%d, %d reconnues (%.1f %%), %d erreurs%n",
+                positions, maxSide, maxSide, recognized, 100.0 * recognized / positions, errors);
+        if (errors > 0) {
+            System.exit(2);
+        }
+    }
+
+    private static int report(int width, int height, int[] heights, String problem) {
+        System.err.println(width + "x" + height + " " + Arrays.toString(heights) + " : " + problem);
+        return 1;
+    }
+}
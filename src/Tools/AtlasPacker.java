@@ -0,0 +1,105 @@
+package Tools;
+
+import View.Assets;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class AtlasPacker {
+    // Usage : AtlasPacker [répertoire des images] [largeur des pages]
+    // Regroupe toutes les images PNG du répertoire (src/resources/images par défaut) dans les
+    // pages atlas0.png, atlas1.png... et écrit atlas.txt (voir View.Assets). Une page par
+    // étagère d'images : les pages se décodent en parallèle. À relancer quand une image change.
+    private static final int PADDING = 1;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = (args.length > 0) ? Paths.get(args[0]) : Paths.get("src", "resources", "images");
+        int pageWidth = (args.length > 1) ? Integer.parseInt(args[1]) : 1024;
+
+        // Anciennes pages : remplacées, jamais reprises comme images
+        try (DirectoryStream<Path> pages = Files.newDirectoryStream(directory, "atlas*.png")) {
+            for (Path page : pages) {
+                Files.delete(page);
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.png")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image == null) {
+                    System.err.println("Image ignorée (format inconnu) : " + file);
+                    continue;
+                }
+                names.add(name.substring(0, name.length() - ".png".length()));
+                images.add(image);
+            }
+        }
+
+        // Rangement par étagères : les images, des plus hautes aux plus basses, sont posées
+        // de gauche à droite ; une nouvelle page commence quand la ligne est pleine
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt((Integer i) -> -images.get(i).getHeight()).thenComparing(names::get));
+
+        List<List<Integer>> pages = new ArrayList<>();
+        int[] xs = new int[images.size()];
+        int x = pageWidth;
+        for (int i : order) {
+            BufferedImage image = images.get(i);
+            if (image.getWidth() > pageWidth) {
+                throw new IllegalArgumentException("Image plus large que la page : " + names.get(i));
+            }
+            if (x + image.getWidth() > pageWidth) {
+                pages.add(new ArrayList<>());
+                x = 0;
+            }
+            pages.get(pages.size() - 1).add(i);
+            xs[i] = x;
+            x += image.getWidth() + PADDING;
+        }
+
+        try (PrintWriter index = new PrintWriter(
+                Files.newBufferedWriter(directory.resolve(Assets.ATLAS_INDEX), StandardCharsets.UTF_8))) {
+            for (int page = 0; page < pages.size(); page++) {
+                List<Integer> shelf = pages.get(page);
+                int width = 0;
+                int height = 0;
+                for (int i : shelf) {
+                    width = Math.max(width, xs[i] + images.get(i).getWidth());
+                    height = Math.max(height, images.get(i).getHeight());
+                }
+
+                BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = atlas.createGraphics();
+                g.setComposite(AlphaComposite.Src);
+                for (int i : shelf) {
+                    BufferedImage image = images.get(i);
+                    g.drawImage(image, xs[i], 0, null);
+                    index.printf("%s %d %d %d %d %d%n", names.get(i), page, xs[i], 0,
+                            image.getWidth(), image.getHeight());
+                }
+                g.dispose();
+                Path file = directory.resolve(String.format(Assets.ATLAS_PAGE, page));
+                ImageIO.write(atlas, "png", file.toFile());
+                System.out.printf("%s : %d images (%dx%d)%n", file, shelf.size(), width, height);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package Tools;
+
+import Model.PositionHash;
+import Model.StaircaseRanker;
+
+import java.util.Arrays;
+
+public class PositionHashCheck {
+    // Usage : PositionHashCheck <largeur max> <hauteur max>
+    // Vérifie qu'aucun couple d'escaliers distincts d'une même gaufre n'a la même clé.
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage : PositionHashCheck <largeur max> <hauteur max>");
+            System.exit(1);
+        }
+
+        int maxWidth = Integer.parseInt(args[0]);
+        int maxHeight = Integer.parseInt(args[1]);
+
+        for (int width = 1; width <= maxWidth; width++) {
+            for (int height = 1; height <= maxHeight; height++) {
+                StaircaseRanker ranker = new StaircaseRanker(width, height);
+                long[] keys = new long[Math.toIntExact(ranker.size())];
+                int[] heights = new int[width];
+                int count = 0;
+                do {
+                    keys[count++] = PositionHash.of(heights);
+                } while (ranker.next(heights));
+
+                Arrays.sort(keys);
+                for (int i = 1; i < keys.length; i++) {
+                    if (keys[i] == keys[i - 1]) {
+                        System.err.printf("Collision sur une gaufre %dx%d : %016x%n", width, height, keys[i]);
+                        System.exit(2);
+                    }
+                }
+            }
+        }
+        System.out.printf("Aucune collision jusqu'à %dx%d%n", maxWidth, maxHeight);
+    }
+}
@@ -0,0 +1,281 @@
+package Tools;
+
+import Server.GameServer;
+import Server.Protocol;
+import Server.SpectatorFeed;
+import Server.SpectatorListener;
+import Server.Subscription;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class SpectatorCheck {
+    // Usage : SpectatorCheck [spectateurs] [parties] [taille]
+    // Vérifie la diffusion aux spectateurs, en mémoire puis à travers une connexion locale :
+    // chaque spectateur, rapide ou lent, arrivé au début ou en cours de partie, doit
+    // reconstruire exactement la gaufre publiée, avec des séquences sans trou.
+    public static void main(String[] args) throws Exception {
+        int spectators = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+        String[] size = ((args.length > 2) ? args[2] : "40x40").split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+
+        boolean ok = checkInProcess(spectators, games, width, height);
+        ok &= checkLoopback(width, height);
+        if (!ok) {
+            System.exit(2);
+        }
+    }
+
+    private static boolean checkInProcess(int spectators, int games, int width, int height)
+            throws InterruptedException {
+        SpectatorFeed feed = new SpectatorFeed(width, height);
+        List<Mirror> mirrors = new ArrayList<>();
+        List<Subscription> subscriptions = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        // Un spectateur sur dix est lent (petit tampon, pause à chaque lot), un sur deux
+        // arrive en cours de route
+        int early = spectators / 2;
+        SplittableRandom random = new SplittableRandom(42);
+        long moves = 0;
+        long slowestPublish = 0;
+        long publishTime = 0;
+        for (int game = 0; game < games; game++) {
+            if (game > 0) {
+                feed.reset(width, height);
+            }
+            int[] heights = new int[width];
+            Arrays.fill(heights, height);
+            int player = 1;
+            while (heights[0] > 0) {
+                if (mirrors.size() < early || (game == games / 2 && mirrors.size() < spectators)) {
+                    subscribe(feed, mirrors, subscriptions, threads, mirrors.size() % 10 == 0);
+                    continue;
+                }
+                int x;
+                int y;
+                do {
+                    x = random.nextInt(width);
+                } while (heights[x] == 0);
+                y = random.nextInt(heights[x]);
+                for (int i = x; i < width && heights[i] > y; i++) {
+                    heights[i] = y;
+                }
+                long start = System.nanoTime();
+                feed.publish(player, x, y);
+                long elapsed = System.nanoTime() - start;
+                publishTime += elapsed;
+                slowestPublish = Math.max(slowestPublish, elapsed);
+                moves++;
+                player = 3 - player;
+            }
+        }
+        feed.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int[] expected = feed.getColumnHeights();
+        long sequence = feed.getSequence();
+        boolean ok = true;
+        long snapshots = 0;
+        long deltas = 0;
+        long coalesced = 0;
+        for (int i = 0; i < mirrors.size(); i++) {
+            Mirror mirror = mirrors.get(i);
+            if (mirror.error != null || mirror.sequence != sequence || !Arrays.equals(mirror.heights, expected)) {
+                System.err.println("Spectateur " + i + " désynchronisé : séquence " + mirror.sequence + " sur "
+                        + sequence + (mirror.error != null ? " (" + mirror.error + ")" : ""));
+                ok = false;
+            }
+            snapshots += mirror.snapshots;
+            deltas += mirror.deltas;
+            coalesced += subscriptions.get(i).getCoalesced();
+        }
+        System.out.printf("En mémoire : %d spectateurs, %d parties, %d coups ; %d états complets (%d débordements), "
+                        + "%d deltas ; publication %.1f µs en moyenne, %.1f µs au plus%n",
+                mirrors.size(), games, moves, snapshots, coalesced, deltas, publishTime / 1e3 / Math.max(1, moves),
+                slowestPublish / 1e3);
+        return ok;
+    }
+
+    private static void subscribe(SpectatorFeed feed, List<Mirror> mirrors, List<Subscription> subscriptions,
+                                  List<Thread> threads, boolean slow) {
+        Subscription subscription = feed.subscribe(slow ? 8 : SpectatorFeed.DEFAULT_BUFFER);
+        Mirror mirror = new Mirror();
+        mirrors.add(mirror);
+        subscriptions.add(subscription);
+        threads.add(Thread.ofVirtual().start(() -> {
+            try {
+                while (subscription.deliver(mirror, 100)) {
+                    if (slow) {
+                        Thread.sleep(1);
+                    }
+                }
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                mirror.error = e.toString();
+            }
+        }));
+    }
+
+    private static boolean checkLoopback(int width, int height) throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0, 1, 10)) {
+            server.start();
+            try (Socket playerSocket = new Socket("localhost", server.getPort())) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(playerSocket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(playerSocket.getOutputStream()));
+                Protocol.writeNewGame(out, width, height, 1);
+                out.flush();
+                expect(in, Protocol.GAME);
+                int session = in.readInt();
+
+                // Un spectateur dès le début, un autre au milieu de la partie
+                Watcher first = new Watcher(server.getPort(), session);
+                Watcher late = null;
+
+                int[] heights = new int[width];
+                Arrays.fill(heights, height);
+                SplittableRandom random = new SplittableRandom(7);
+                int moves = 0;
+                while (heights[0] > 0) {
+                    int x;
+                    do {
+                        x = random.nextInt(width);
+                    } while (heights[x] == 0);
+                    int y = random.nextInt(heights[x]);
+                    if (x == 0 && y == 0 && (width > 1 && heights[1] > 0 || heights[0] > 1)) {
+                        continue;
+                    }
+                    Protocol.writeMove(out, x, y);
+                    out.flush();
+                    readMoved(in, heights);
+                    if (heights[0] > 0) {
+                        readMoved(in, heights);
+                    }
+                    if (++moves == 5) {
+                        late = new Watcher(server.getPort(), session);
+                    }
+                }
+                expect(in, Protocol.OVER);
+                in.readUnsignedByte();
+
+                // La fin de la session ferme les diffusions : les spectateurs reçoivent la fin de partie puis EOF
+                out.writeByte(Protocol.QUIT);
+                out.flush();
+                boolean ok = first.check(heights, "premier");
+                if (late != null) {
+                    ok &= late.check(heights, "tardif");
+                }
+                System.out.println("Connexion locale : " + (ok ? "spectateurs synchronisés" : "échec")
+                        + " après " + moves + " coups du joueur");
+                return ok;
+            }
+        }
+    }
+
+    private static void readMoved(DataInputStream in, int[] heights) throws IOException {
+        expect(in, Protocol.MOVED);
+        in.readUnsignedByte();
+        int x = in.readUnsignedShort();
+        int y = in.readUnsignedShort();
+        for (int i = x; i < heights.length && heights[i] > y; i++) {
+            heights[i] = y;
+        }
+    }
+
+    private static void expect(DataInputStream in, int type) throws IOException {
+        int received = in.readUnsignedByte();
+        if (received != type) {
+            throw new IOException("Trame inattendue : " + received + " au lieu de " + type);
+        }
+    }
+
+    // Gaufre reconstruite par un spectateur ; vérifie la continuité des séquences
+    private static final class Mirror implements SpectatorListener {
+        int[] heights;
+        long sequence = -1;
+        long snapshots;
+        long deltas;
+        String error;
+
+        @Override
+        public void onSnapshot(long sequence, int width, int height, int[] heights) {
+            if (sequence < this.sequence) {
+                error = "état complet " + sequence + " plus ancien que " + this.sequence;
+            }
+            this.sequence = sequence;
+            this.heights = heights.clone();
+            snapshots++;
+        }
+
+        @Override
+        public void onMove(long sequence, int player, int x, int y) {
+            if (heights == null || sequence != this.sequence + 1) {
+                error = "coup " + sequence + " après " + this.sequence;
+            }
+            this.sequence = sequence;
+            for (int i = x; i < heights.length && heights[i] > y; i++) {
+                heights[i] = y;
+            }
+            deltas++;
+        }
+    }
+
+    // Spectateur à travers le serveur : lit SNAPSHOT et DELTA jusqu'à la fermeture
+    private static final class Watcher {
+        private final Mirror mirror = new Mirror();
+        private final Thread thread;
+
+        Watcher(int port, int session) throws IOException {
+            Socket socket = new Socket("localhost", port);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeByte(Protocol.WATCH);
+            out.writeInt(session);
+            out.flush();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            thread = Thread.ofVirtual().start(() -> {
+                try (socket) {
+                    while (true) {
+                        int type = in.readUnsignedByte();
+                        int sequence = in.readInt();
+                        if (type == Protocol.SNAPSHOT) {
+                            int width = in.readUnsignedShort();
+                            int height = in.readUnsignedShort();
+                            mirror.onSnapshot(sequence, width, height, Protocol.readStaircase(in, width, height));
+                        } else if (type == Protocol.DELTA) {
+                            int player = in.readUnsignedByte();
+                            mirror.onMove(sequence, player, in.readUnsignedShort(), in.readUnsignedShort());
+                        } else {
+                            mirror.error = "trame inattendue " + type;
+                            return;
+                        }
+                    }
+                } catch (EOFException e) {
+                    // Fin de la diffusion
+                } catch (IOException e) {
+                    mirror.error = e.toString();
+                }
+            });
+        }
+
+        boolean check(int[] expected, String name) throws InterruptedException {
+            thread.join(5000);
+            if (mirror.error != null || !Arrays.equals(mirror.heights, expected)) {
+                System.err.println("Spectateur " + name + " désynchronisé"
+                        + (mirror.error != null ? " : " + mirror.error : ""));
+                return false;
+            }
+            return true;
+        }
+    }
+}
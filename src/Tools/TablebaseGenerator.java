@@ -0,0 +1,48 @@
+package Tools;
+
+import Model.MappedTablebase;
+import Model.RetrogradeSolver;
+import Model.StaircaseRanker;
+import Model.Tablebases;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+public class TablebaseGenerator {
+    // Usage : TablebaseGenerator <largeur max> <hauteur max> [répertoire] [threads]
+    // Écrit une table pour chaque gaufre de 1x1 jusqu'à largeur max x hauteur max.
+    // Par défaut, toutes les unités de calcul sont utilisées. Une gaufre plus large que haute
+    // est servie par la table de sa transposée : seule celle-ci est écrite.
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : TablebaseGenerator <largeur max> <hauteur max> [répertoire] [threads]");
+            System.exit(1);
+        }
+
+        int maxWidth = Integer.parseInt(args[0]);
+        int maxHeight = Integer.parseInt(args[1]);
+        Path directory = (args.length > 2) ? Paths.get(args[2]) : Tablebases.getDirectory();
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        for (int width = 1; width <= maxWidth; width++) {
+            for (int height = 1; height <= maxHeight; height++) {
+                if (width > height && width <= maxHeight && height <= maxWidth) {
+                    continue;  // transposée déjà écrite par cette boucle
+                }
+                int columns = Math.min(width, height);
+                int rows = Math.max(width, height);
+                RetrogradeSolver solver = new RetrogradeSolver(columns, rows, pool);
+                Path file = directory.resolve(MappedTablebase.fileName(columns, rows));
+                MappedTablebase.write(solver, file);
+
+                System.out.printf("%dx%d : %d états en %d ms (%d états/s) -> %s%n",
+                        columns, rows, StaircaseRanker.countStates(columns, rows),
+                        solver.getBuildMillis(), solver.getStatesPerSecond(), file);
+            }
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,184 @@
+package Tools;
+
+import Model.AIPlayer;
+import Model.Move;
+import Model.WaffleModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Tournament {
+    // Parties distribuées par paquets : assez gros pour amortir la synchronisation,
+    // assez petits pour équilibrer la charge entre les fils
+    private static final int BATCH = 256;
+
+    // Usage : Tournament <niveau A> <niveau B> <parties> [tailles] [threads] [réflexion ms] [graine]
+    // Tailles sous la forme 6x8,10x10 (6x8 par défaut). Les camps alternent d'une partie
+    // à l'autre : A commence les parties paires, B les impaires.
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length < 3) {
+            System.err.println("Usage : Tournament <niveau A> <niveau B> <parties> [tailles] [threads] [réflexion ms] [graine]");
+            System.exit(1);
+        }
+
+        int levelA = Integer.parseInt(args[0]);
+        int levelB = Integer.parseInt(args[1]);
+        long games = Long.parseLong(args[2]);
+        String sizes = (args.length > 3) ? args[3] : WaffleModel.DEFAULT_WIDTH + "x" + WaffleModel.DEFAULT_HEIGHT;
+        int threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long thinkMillis = (args.length > 5) ? Long.parseLong(args[5]) : 100;
+        long seed = (args.length > 6) ? Long.parseLong(args[6]) : System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        for (String size : sizes.split(",")) {
+            String[] dimensions = size.trim().split("x");
+            int width = Integer.parseInt(dimensions[0]);
+            int height = Integer.parseInt(dimensions[1]);
+
+            Result result = run(pool, threads, width, height, levelA, levelB, games, thinkMillis, seed);
+            print(width, height, levelA, levelB, result);
+        }
+        pool.shutdown();
+    }
+
+    static Result run(ForkJoinPool pool, int threads, int width, int height, int levelA, int levelB,
+                      long games, long thinkMillis, long seed) throws InterruptedException, ExecutionException {
+        AtomicLong nextGame = new AtomicLong();
+        List<Callable<Result>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(() -> {
+                Worker worker = new Worker(width, height, levelA, levelB, thinkMillis);
+                long first;
+                while ((first = nextGame.getAndAdd(BATCH)) < games) {
+                    long last = Math.min(games, first + BATCH);
+                    for (long game = first; game < last; game++) {
+                        worker.play(game, mix(seed + game));
+                    }
+                }
+                return worker.result;
+            });
+        }
+
+        long start = System.nanoTime();
+        Result total = new Result();
+        List<Future<Result>> results = new ArrayList<>();
+        for (Callable<Result> worker : workers) {
+            results.add(pool.submit(worker));
+        }
+        for (Future<Result> result : results) {
+            total.add(result.get());
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    // Une gaufre et deux IA par fil, réutilisées d'une partie à l'autre
+    private static final class Worker {
+        private final WaffleModel model;
+        private final AIPlayer playerA;
+        private final AIPlayer playerB;
+        private final int levelA;
+        private final int levelB;
+        private final Result result = new Result();
+
+        Worker(int width, int height, int levelA, int levelB, long thinkMillis) {
+            this.model = new WaffleModel(width, height);
+            this.playerA = new AIPlayer(model, 0);
+            this.playerB = new AIPlayer(model, 0);
+            this.levelA = levelA;
+            this.levelB = levelB;
+            for (AIPlayer player : new AIPlayer[]{playerA, playerB}) {
+                player.setThinkMillis(thinkMillis);
+                player.setSearchThreads(1);  // Le parallélisme vient des parties
+            }
+        }
+
+        void play(long game, long seed) {
+            model.initGame();
+            playerA.setSeed(seed);
+            playerB.setSeed(mix(seed));
+
+            // A est le joueur 1 dans les parties paires, le joueur 2 dans les impaires
+            int playerOfA = (game % 2 == 0) ? 1 : 2;
+            while (!model.isGameOver()) {
+                boolean turnOfA = model.getCurrentPlayer() == playerOfA;
+                long start = System.nanoTime();
+                Move move = turnOfA ? playerA.makeMove(levelA) : playerB.makeMove(levelB);
+                long elapsed = System.nanoTime() - start;
+                if (turnOfA) {
+                    result.movesA++;
+                    result.nanosA += elapsed;
+                } else {
+                    result.movesB++;
+                    result.nanosB += elapsed;
+                }
+                model.makeMove(move.getX(), move.getY());
+            }
+
+            result.games++;
+            if (model.getWinner() == playerOfA) {
+                result.winsA++;
+                if (playerOfA == 1) {
+                    result.winsAFirst++;
+                }
+            } else if (playerOfA == 2) {
+                result.winsBFirst++;
+            }
+        }
+    }
+
+    static final class Result {
+        long games;
+        long winsA;
+        long winsAFirst;  // victoires de A quand il commence
+        long winsBFirst;  // victoires de B quand il commence
+        long movesA;
+        long movesB;
+        long nanosA;
+        long nanosB;
+        long elapsedNanos;
+
+        void add(Result other) {
+            games += other.games;
+            winsA += other.winsA;
+            winsAFirst += other.winsAFirst;
+            winsBFirst += other.winsBFirst;
+            movesA += other.movesA;
+            movesB += other.movesB;
+            nanosA += other.nanosA;
+            nanosB += other.nanosB;
+        }
+    }
+
+    private static void print(int width, int height, int levelA, int levelB, Result result) {
+        long gamesAFirst = (result.games + 1) / 2;
+        long gamesBFirst = result.games / 2;
+        double seconds = result.elapsedNanos / 1e9;
+
+        System.out.printf("%dx%d : niveau %d contre niveau %d, %d parties en %.2f s (%.0f parties/s)%n",
+                width, height, levelA, levelB, result.games, seconds, result.games / seconds);
+        System.out.printf("  niveau %d : %.1f %% de victoires (%.1f %% en commençant), %.2f µs par coup%n",
+                levelA, percent(result.winsA, result.games), percent(result.winsAFirst, gamesAFirst),
+                result.nanosA / 1e3 / Math.max(1, result.movesA));
+        System.out.printf("  niveau %d : %.1f %% de victoires (%.1f %% en commençant), %.2f µs par coup%n",
+                levelB, percent(result.games - result.winsA, result.games), percent(result.winsBFirst, gamesBFirst),
+                result.nanosB / 1e3 / Math.max(1, result.movesB));
+    }
+
+    private static double percent(long count, long total) {
+        return (total == 0) ? 0 : 100.0 * count / total;
+    }
+
+    // SplitMix64 : graines indépendantes pour des parties consécutives
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
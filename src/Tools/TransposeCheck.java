@@ -0,0 +1,135 @@
+package Tools;
+
+import Model.Move;
+import Model.PositionHash;
+import Model.StaircaseRanker;
+import Model.Tablebase;
+import Model.Tablebases;
+import Model.Transpose;
+
+import java.util.Arrays;
+
+public class TransposeCheck {
+    // Usage : TransposeCheck [côté max]
+    // Vérifie la canonicalisation par transposition sur toutes les gaufres jusqu'à
+    // côté max x côté max (8 par défaut) :
+    //   - clé et rang du transposé calculés à la volée = ceux du transposé construit, et
+    //     unrank inverse de rank ;
+    //   - clés canoniques : seules une position et sa transposée se confondent ;
+    //   - tables (dont les vues transposées) cohérentes : une position est gagnante si et
+    //     seulement si un coup mène à une position perdante, et le coup proposé y mène.
+    public static void main(String[] args) {
+        int maxSide = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+
+        long positions = 0;
+        long errors = 0;
+        for (int width = 1; width <= maxSide; width++) {
+            for (int height = 1; height <= maxSide; height++) {
+                StaircaseRanker ranker = new StaircaseRanker(width, height);
+                StaircaseRanker transposedRanker = new StaircaseRanker(height, width);
+                Tablebase table = Tablebases.forBoard(width, height);
+                long[] canonicalKeys = new long[Math.toIntExact(ranker.size())];
+                int count = 0;
+                int[] heights = new int[width];
+                int[] after = new int[width];
+                int[] unranked = new int[width];
+                do {
+                    positions++;
+                    int[] transposed = Transpose.of(heights, height);
+                    if (!Arrays.equals(Transpose.of(transposed, width), heights)) {
+                        errors += report(width, height, heights, "transposition non involutive");
+                    }
+                    long key = PositionHash.of(heights);
+                    long transposedKey = Transpose.key(heights);
+                    if (transposedKey != PositionHash.of(transposed)) {
+                        errors += report(width, height, heights, "clé du transposé fausse");
+                    }
+                    if (transposedRanker.transposedRank(heights) != transposedRanker.rank(transposed)) {
+                        errors += report(width, height, heights, "rang du transposé faux");
+                    }
+                    ranker.unrank(ranker.rank(heights), unranked);
+                    if (!Arrays.equals(unranked, heights)) {
+                        errors += report(width, height, heights, "unrank faux : " + Arrays.toString(unranked));
+                    }
+                    canonicalKeys[count++] = Transpose.canonicalKey(key, transposedKey);
+
+                    errors += checkTable(table, width, height, heights, after);
+                } while (ranker.next(heights));
+
+                // Sur une gaufre carrée, chaque position a son transposé : autant de clés canoniques
+                // que de positions à transposition près
+                if (width == height) {
+                    Arrays.sort(canonicalKeys);
+                    long distinct = 1;
+                    for (int i = 1; i < canonicalKeys.length; i++) {
+                        if (canonicalKeys[i] != canonicalKeys[i - 1]) {
+                            distinct++;
+                        }
+                    }
+                    long expected = orbits(ranker, width);
+                    if (distinct != expected) {
+                        System.err.printf("%dx%d : %d clés canoniques pour %d positions à transposition près%n",
+                                width, height, distinct, expected);
+                        errors++;
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%d positions jusqu'à %dx%d, %d erreurs%n", positions, maxSide, maxSide, errors);
+        if (errors > 0) {
+            System.exit(2);
+        }
+    }
+
+    private static int checkTable(Tablebase table, int width, int height, int[] heights, int[] after) {
+        if (heights[0] == 0) {
+            return table.isWinning(heights) ? 0 : report(width, height, heights, "gaufre vide perdante");
+        }
+        boolean winning = table.isWinning(heights);
+        boolean hasLosingMove = false;
+        for (int x = 0; x < width && heights[x] > 0 && !hasLosingMove; x++) {
+            for (int y = 0; y < heights[x] && !hasLosingMove; y++) {
+                play(heights, x, y, after);
+                hasLosingMove = !table.isWinning(after);
+            }
+        }
+        if (winning != hasLosingMove) {
+            return report(width, height, heights, "valeur incohérente avec les successeurs");
+        }
+
+        Move move = table.findMove(heights, 1);
+        if (move == null || move.getX() >= width || move.getY() >= heights[move.getX()]) {
+            return report(width, height, heights, "coup illégal " + move);
+        }
+        play(heights, move.getX(), move.getY(), after);
+        if (winning && table.isWinning(after)) {
+            return report(width, height, heights, "coup " + move + " non gagnant");
+        }
+        return 0;
+    }
+
+    private static void play(int[] heights, int x, int y, int[] after) {
+        System.arraycopy(heights, 0, after, 0, heights.length);
+        for (int i = x; i < after.length && after[i] > y; i++) {
+            after[i] = y;
+        }
+    }
+
+    // Nombre de positions d'une gaufre carrée à transposition près : (positions + symétriques) / 2
+    private static long orbits(StaircaseRanker ranker, int side) {
+        long symmetric = 0;
+        int[] heights = new int[side];
+        do {
+            if (Arrays.equals(Transpose.of(heights, side), heights)) {
+                symmetric++;
+            }
+        } while (ranker.next(heights));
+        return (ranker.size() + symmetric) / 2;
+    }
+
+    private static int report(int width, int height, int[] heights, String problem) {
+        System.err.println(width + "x" + height + " " + Arrays.toString(heights) + " : " + problem);
+        return 1;
+    }
+}
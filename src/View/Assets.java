@@ -0,0 +1,195 @@
+package View;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+public final class Assets {
+    // Images du jeu, regroupées dans une planche décrite par atlas.txt : une ligne
+    // « nom page x y largeur hauteur » par image (voir Tools.AtlasPacker). La planche est
+    // découpée en quelques pages (atlas0.png, atlas1.png...) décodées en parallèle, hors de
+    // l'EDT : la fenêtre s'affiche tout de suite avec les images de remplacement dessinées par
+    // programme, remplacées dès le décodage fini. Sans planche, les fichiers séparés sont lus.
+    public static final String DIRECTORY = "/resources/images/";
+    public static final String ATLAS_PAGE = "atlas%d.png";
+    public static final String ATLAS_INDEX = "atlas.txt";
+
+    // Noms des images (fichiers séparés : nom + ".png")
+    public static final String WAFFLE = "waffle";
+    public static final String POISON = "poison1";
+    public static final String HINT = "hint";
+    public static final String TOP_MID = "waffle_top_mid1";
+    public static final String TOP_RIGHT = "waffle_top_right1";
+    public static final String LEFT_MID = "waffle_left_mid1";
+    public static final String RIGHT_MID = "waffle_right_mid1";
+    public static final String BOTTOM_LEFT = "waffle_bottom_left1";
+    public static final String BOTTOM_MID = "waffle_bottom_mid1";
+    public static final String BOTTOM_RIGHT = "waffle_bottom_right1";
+    public static final String FULL_HEART = "full_heart";
+    public static final String EMPTY_HEART = "empty_heart";
+
+    private static final String[] NAMES = {
+            WAFFLE, POISON, HINT, TOP_MID, TOP_RIGHT, LEFT_MID, RIGHT_MID,
+            BOTTOM_LEFT, BOTTOM_MID, BOTTOM_RIGHT, FULL_HEART, EMPTY_HEART
+    };
+
+    private static CompletableFuture<Map<String, BufferedImage>> images;
+    private static volatile long loadedMillis = -1;
+    private static boolean firstFrameReported;
+
+    private Assets() {
+    }
+
+    // Lance le décodage en arrière-plan (une seule fois) : à appeler le plus tôt possible
+    public static synchronized void preload() {
+        if (images != null) {
+            return;
+        }
+        // Au moins deux fils : le premier attend les décodages confiés aux autres
+        ExecutorService decoders = Executors.newFixedThreadPool(
+                Math.max(2, Math.min(NAMES.length, Runtime.getRuntime().availableProcessors())), runnable -> {
+                    Thread thread = new Thread(runnable, "waffle-assets");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        images = CompletableFuture.supplyAsync(() -> load(decoders), decoders)
+                .whenComplete((loaded, error) -> {
+                    loadedMillis = sinceLaunch();
+                    decoders.shutdown();
+                });
+    }
+
+    // action reçoit les images décodées (absentes si introuvables), sur l'EDT
+    public static void whenLoaded(Consumer<Map<String, BufferedImage>> action) {
+        preload();
+        images.thenAccept(loaded -> SwingUtilities.invokeLater(() -> action.accept(loaded)));
+    }
+
+    private static Map<String, BufferedImage> load(ExecutorService decoders) {
+        List<String[]> entries = readIndex();
+        if (entries != null) {
+            try {
+                return slice(entries, decoders);
+            } catch (RuntimeException e) {
+                System.err.println("Planche d'images illisible, chargement image par image : " + e.getMessage());
+            }
+        }
+
+        // Fichiers séparés
+        List<String> files = new ArrayList<>();
+        for (String name : NAMES) {
+            files.add(name + ".png");
+        }
+        List<BufferedImage> decoded = decode(files, decoders);
+        Map<String, BufferedImage> result = new HashMap<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (decoded.get(i) != null) {
+                result.put(NAMES[i], decoded.get(i));
+            }
+        }
+        return result;
+    }
+
+    // Lignes de l'index, ou null sans planche
+    private static List<String[]> readIndex() {
+        try (InputStream in = Assets.class.getResourceAsStream(DIRECTORY + ATLAS_INDEX)) {
+            if (in == null) {
+                return null;
+            }
+            List<String[]> entries = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length == 6) {
+                    entries.add(fields);
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            System.err.println("Index de la planche d'images illisible : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, BufferedImage> slice(List<String[]> entries, ExecutorService decoders) {
+        int pageCount = 0;
+        for (String[] fields : entries) {
+            pageCount = Math.max(pageCount, Integer.parseInt(fields[1]) + 1);
+        }
+        List<String> files = new ArrayList<>();
+        for (int page = 0; page < pageCount; page++) {
+            files.add(String.format(ATLAS_PAGE, page));
+        }
+        List<BufferedImage> pages = decode(files, decoders);
+
+        Map<String, BufferedImage> result = new HashMap<>();
+        for (String[] fields : entries) {
+            BufferedImage page = pages.get(Integer.parseInt(fields[1]));
+            if (page != null) {
+                result.put(fields[0], page.getSubimage(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                        Integer.parseInt(fields[4]), Integer.parseInt(fields[5])));
+            }
+        }
+        return result;
+    }
+
+    // Décode les fichiers en parallèle ; null à la place d'un fichier absent ou illisible
+    private static List<BufferedImage> decode(List<String> files, ExecutorService decoders) {
+        List<CompletableFuture<BufferedImage>> decoded = new ArrayList<>();
+        for (String file : files) {
+            decoded.add(CompletableFuture.supplyAsync(() -> read(file), decoders));
+        }
+        List<BufferedImage> result = new ArrayList<>();
+        for (CompletableFuture<BufferedImage> image : decoded) {
+            result.add(image.join());
+        }
+        return result;
+    }
+
+    private static BufferedImage read(String file) {
+        try (InputStream in = Assets.class.getResourceAsStream(DIRECTORY + file)) {
+            if (in != null) {
+                BufferedImage image = ImageIO.read(in);
+                if (image != null) {
+                    return image;
+                }
+                System.err.println("Image illisible : " + file);
+            } else {
+                System.err.println("Image introuvable : " + file);
+            }
+        } catch (IOException e) {
+            System.err.println("Image illisible : " + file + " (" + e.getMessage() + ")");
+        }
+        return null;
+    }
+
+    // Premier dessin de la gaufre : temps écoulé depuis le lancement de la JVM, rapporté une fois
+    static void firstFrame() {
+        if (firstFrameReported) {
+            return;
+        }
+        firstFrameReported = true;
+        long images = loadedMillis;
+        System.out.println("Premier affichage " + sinceLaunch() + " ms après le lancement"
+                + (images >= 0 ? " (images prêtes à " + images + " ms)" : " (images en cours de décodage)"));
+    }
+
+    private static long sinceLaunch() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
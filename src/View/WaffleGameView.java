@@ -1,6 +1,7 @@
 package View;
 
 import Controller.WaffleController;
+import Model.Hint;
 import Model.WaffleModel;
 
 import javax.swing.*;
@@ -9,14 +10,20 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.util.Map;
 
-public class WaffleGameView extends JFrame {
-    private final WaffleController controller;
+public final class WaffleGameView extends JFrame {
+    private static final long serialVersionUID = 4026943293935271954L;
+
+    // La fenêtre n'est jamais sérialisée : le contrôleur n'a pas à l'être
+    private final transient WaffleController controller;
     private final WafflePanel wafflePanel;
     private JLabel statusLabel;
     private JLabel playerLabel;
     private JPanel hintsPanel;
     private JLabel[] heartLabels;
+    private JSlider timelineSlider;
+    private boolean updatingTimeline;
 
     // Menu items
     private JMenuItem newGameMenuItem;
@@ -36,6 +43,7 @@ public class WaffleGameView extends JFrame {
     // Images
     private ImageIcon fullHeartIcon;
     private ImageIcon emptyHeartIcon;
+    private boolean assetsRequested;  // abonnement aux images décodées fait (voir addNotify)
 
     public WaffleGameView(WaffleController controller) {
         this.controller = controller;
@@ -78,25 +86,44 @@ public class WaffleGameView extends JFrame {
     }
 
     private void loadIcons() {
-        fullHeartIcon = new ImageIcon(getClass().getResource("/resources/images/full_heart.png"));
-        if (fullHeartIcon.getIconWidth() == -1) {
-            // Si l'image n'a pas pu être chargée, utiliser une image par défaut
-            fullHeartIcon = new ImageIcon(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB));
-            Graphics g = fullHeartIcon.getImage().getGraphics();
-            g.setColor(Color.RED);
-            g.fillOval(0, 0, 20, 20);
-            g.dispose();
+        // Cœurs dessinés en attendant le décodage des images (voir Assets)
+        fullHeartIcon = new ImageIcon(createDefaultHeart(Color.RED));
+        emptyHeartIcon = new ImageIcon(createDefaultHeart(Color.GRAY));
+    }
+
+    // Abonnement aux images décodées à l'affichage de la fenêtre, une fois construite
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (!assetsRequested) {
+            assetsRequested = true;
+            Assets.whenLoaded(this::useIcons);
         }
+    }
 
-        emptyHeartIcon = new ImageIcon(getClass().getResource("/resources/images/empty_heart.png"));
-        if (emptyHeartIcon.getIconWidth() == -1) {
-            // Si l'image n'a pas pu être chargée, utiliser une image par défaut
-            emptyHeartIcon = new ImageIcon(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB));
-            Graphics g = emptyHeartIcon.getImage().getGraphics();
-            g.setColor(Color.GRAY);
-            g.fillOval(0, 0, 20, 20);
-            g.dispose();
+    private void useIcons(Map<String, BufferedImage> images) {
+        if (images.containsKey(Assets.FULL_HEART)) {
+            fullHeartIcon.setImage(images.get(Assets.FULL_HEART));
         }
+        if (images.containsKey(Assets.EMPTY_HEART)) {
+            emptyHeartIcon.setImage(images.get(Assets.EMPTY_HEART));
+        }
+        // Les icônes ont pu changer de taille
+        if (heartLabels != null) {
+            for (JLabel label : heartLabels) {
+                label.revalidate();
+            }
+        }
+        repaint();
+    }
+
+    private static BufferedImage createDefaultHeart(Color color) {
+        BufferedImage image = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = image.getGraphics();
+        g.setColor(color);
+        g.fillOval(0, 0, 20, 20);
+        g.dispose();
+        return image;
     }
 
     private void createMenuBar() {
@@ -230,13 +257,24 @@ public class WaffleGameView extends JFrame {
         JPanel levelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         levelPanel.add(new JLabel("Niveau : "));
 
-        JComboBox<String> levelComboBox = new JComboBox<>(new String[] {"Facile", "Intermédiaire", "Difficile"});
+        JComboBox<String> levelComboBox = new JComboBox<>(new String[] {"Facile", "Intermédiaire", "Difficile", "Expert", "Monte-Carlo"});
         levelComboBox.addActionListener(e -> controller.setAILevel(levelComboBox.getSelectedIndex() + 1));
         levelPanel.add(levelComboBox);
 
         optionsPanel.add(aiPanel);
         optionsPanel.add(levelPanel);
 
+        // Ligne de temps : se placer directement après n'importe quel coup
+        JPanel timelinePanel = new JPanel(new BorderLayout());
+        timelinePanel.setBorder(BorderFactory.createTitledBorder("Historique"));
+        timelineSlider = new JSlider(-1, -1, -1);
+        timelineSlider.addChangeListener(e -> {
+            if (!updatingTimeline) {
+                controller.goToMove(timelineSlider.getValue());
+            }
+        });
+        timelinePanel.add(timelineSlider, BorderLayout.CENTER);
+
         // Ajouter tous les composants au panneau d'informations
         infoPanel.add(Box.createVerticalStrut(20));
         infoPanel.add(playerLabel);
@@ -244,6 +282,8 @@ public class WaffleGameView extends JFrame {
         infoPanel.add(hintsPanel);
         infoPanel.add(Box.createVerticalStrut(20));
         infoPanel.add(optionsPanel);
+        infoPanel.add(Box.createVerticalStrut(20));
+        infoPanel.add(timelinePanel);
         infoPanel.add(Box.createVerticalGlue());
 
         return infoPanel;
@@ -286,6 +326,12 @@ public class WaffleGameView extends JFrame {
         undoMenuItem.setEnabled(controller.canUndo());
         redoMenuItem.setEnabled(controller.canRedo());
 
+        // Mettre à jour la ligne de temps sans redéclencher de déplacement
+        updatingTimeline = true;
+        timelineSlider.setMaximum(model.getMoveHistory().size() - 1);
+        timelineSlider.setValue(model.getCurrentMoveIndex());
+        updatingTimeline = false;
+
         // Activer/désactiver le bouton d'indice
         hintButton.setEnabled(hintsRemaining > 0 && !model.isGameOver());
         hintsMenuItem.setEnabled(hintsRemaining > 0 && !model.isGameOver());
@@ -294,8 +340,14 @@ public class WaffleGameView extends JFrame {
         repaint();
     }
 
-    public void showHint(int x, int y) {
-        wafflePanel.showHint(x, y);
+    public void showHint(Hint hint) {
+        wafflePanel.showHint(hint.getX(), hint.getY());
+        // L'évaluation n'est connue que pour les familles résolues et les tables déjà prêtes
+        switch (hint.getEvaluation()) {
+            case Hint.WINNING -> statusLabel.setText("Indice : position gagnante, jouez la case indiquée.");
+            case Hint.LOSING -> statusLabel.setText("Indice : position perdante, la case indiquée fait durer la partie.");
+            default -> statusLabel.setText("Indice : meilleur coup trouvé, position non évaluée.");
+        }
     }
 
     private void showRules() {
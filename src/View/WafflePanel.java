@@ -1,32 +1,87 @@
 package View;
 
 import Controller.WaffleController;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.PaintEvent;
 import Model.WaffleModel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
+import java.util.Map;
 
-public class WafflePanel extends JPanel {
-    private final WaffleController controller;
-    private boolean[][] waffle;
+public final class WafflePanel extends JPanel {
+    private static final long serialVersionUID = 7218289180401405554L;
+
+    // Le panneau n'est jamais sérialisé : contrôleur et images n'ont pas à l'être
+    private final transient WaffleController controller;
+    private int[] columnHeights;  // nombre de cases restantes par colonne
     private int width;
     private int height;
 
+    // Sortes de case : chacune a son image, selon sa place dans la gaufre entière
+    private static final int CENTER = 0;
+    private static final int POISON = 1;
+    private static final int TOP_MID = 2;
+    private static final int TOP_RIGHT = 3;
+    private static final int LEFT_MID = 4;
+    private static final int RIGHT_MID = 5;
+    private static final int BOTTOM_LEFT = 6;
+    private static final int BOTTOM_MID = 7;
+    private static final int BOTTOM_RIGHT = 8;
+    private static final int HINT = 9;
+    private static final int TILE_COUNT = 10;
+
+    // Images mises à l'échelle de la case, recalculées seulement quand la taille des cases change
+    private final transient Image[] tiles = new Image[TILE_COUNT];
+    private int tileWidth;
+    private int tileHeight;
+
+    // Gaufre déjà dessinée : un coup n'y redessine que les cases mangées (ou rendues)
+    private transient BufferedImage board;
+    private int[] boardHeights;
+
+    // Sous LOD_MIN_CELL_PIXELS pixels par case, la gaufre n'est plus qu'un polygone :
+    // le contour de l'escalier, en O(largeur) quel que soit le nombre de cases
+    private static final int LOD_MIN_CELL_PIXELS = 4;
+    private static final Color WAFFLE_COLOR = new Color(222, 170, 92);
+    private static final Color POISON_COLOR = new Color(200, 30, 30);
+    private static final Color HINT_COLOR = new Color(255, 215, 0);
+    private static final double MAX_CELL_PIXELS = 128;
+    private static final double ZOOM_STEP = 1.25;
+
+    // Vue : agrandissement (1 = gaufre entière) et décalage en pixels de l'écran
+    private double zoom = 1;
+    private double panX;
+    private double panY;
+    private Point dragStart;
+
+    // Disposition courante (voir computeLayout), partagée par le dessin et la souris
+    private boolean detailed;
+    private double cellWidth;
+    private double cellHeight;
+
+    private static final LatencyHistogram PAINT_TIME = MetricsRegistry.histogram("view.paint");
+
+    private Path2D.Double outline;  // contour de l'escalier en cases, recalculé à chaque coup
+
     // Images pour les cases de la gaufre
-    private Image waffleImage;
-    private Image waffleImageTopLeft;
-    private Image waffleImageTopMid;
-    private Image waffleImageTopRight;
-    private Image waffleImageLeftMid;
-    private Image waffleImageRightMid;
-    private Image waffleImageBottomLeft;
-    private Image waffleImageBottomMid;
-    private Image waffleImageBottomRight;
-    private Image poisonImage;
-    private Image hintImage;
+    private transient Image waffleImage;
+    private transient Image waffleImageTopMid;
+    private transient Image waffleImageTopRight;
+    private transient Image waffleImageLeftMid;
+    private transient Image waffleImageRightMid;
+    private transient Image waffleImageBottomLeft;
+    private transient Image waffleImageBottomMid;
+    private transient Image waffleImageBottomRight;
+    private transient Image poisonImage;
+    private transient Image hintImage;
+    private boolean assetsRequested;  // abonnement aux images décodées fait (voir addNotify)
 
     // Pour l'animation de l'indice
     private int hintX = -1;
@@ -37,115 +92,119 @@ public class WafflePanel extends JPanel {
         this.controller = controller;
 
         // Initialiser la gaufre
-        waffle = null;
+        columnHeights = null;
         width = 0;
         height = 0;
 
         // Charger les images
         loadImages();
 
-        // Ajouter un écouteur de souris
-        addMouseListener(new MouseAdapter() {
+        // Ajouter un écouteur de souris : clic pour jouer, molette pour zoomer, glisser pour
+        // se déplacer, clic droit pour revoir la gaufre entière
+        MouseAdapter mouse = new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (waffle != null) {
-                    // Convertir les coordonnées de la souris en indices de la grille
-                    int cellWidth = getWidth() / width;
-                    int cellHeight = getHeight() / height;
+                if (columnHeights == null) {
+                    return;
+                }
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    resetView();
+                    return;
+                }
+                // Convertir les coordonnées de la souris en indices de la grille, à tout zoom
+                computeLayout();
+                int x = (int) Math.floor((e.getX() + panX) / cellWidth);
+                int y = (int) Math.floor((e.getY() + panY) / cellHeight);
+
+                // Vérifier que les coordonnées sont dans les limites
+                if (x >= 0 && x < width && y >= 0 && y < height) {
+                    controller.makeMove(x, y);
+                }
+            }
 
-                    int x = e.getX() / cellWidth;
-                    int y = e.getY() / cellHeight;
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
 
-                    // Vérifier que les coordonnées sont dans les limites
-                    if (x >= 0 && x < width && y >= 0 && y < height) {
-                        controller.makeMove(x, y);
-                    }
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart != null && zoom > 1) {
+                    panBy(dragStart.x - e.getX(), dragStart.y - e.getY());
+                    dragStart = e.getPoint();
                 }
             }
-        });
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (columnHeights != null) {
+                    zoomAt(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
 
         // Timer pour l'animation de l'indice
         hintTimer = new Timer(1500, e -> {
+            repaintCell(hintX, hintY);
             hintX = -1;
             hintY = -1;
-            repaint();
             hintTimer.stop();
         });
         hintTimer.setRepeats(false);
     }
 
     private void loadImages() {
-        // Charger l'image de la gaufre
-        try {
-            waffleImage = new ImageIcon(getClass().getResource("/resources/images/waffle.png")).getImage();
-        } catch (Exception e) {
-            // Si l'image ne peut pas être chargée, créer une image par défaut
-            waffleImage = createDefaultWaffleImage();
-        }
-
-        try {
-            waffleImageTopLeft = new ImageIcon(getClass().getResource("/resources/images/waffle_top_left1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageTopMid = new ImageIcon(getClass().getResource("/resources/images/waffle_top_mid1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageTopRight = new ImageIcon(getClass().getResource("/resources/images/waffle_top_right1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageLeftMid = new ImageIcon(getClass().getResource("/resources/images/waffle_left_mid1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageRightMid = new ImageIcon(getClass().getResource("/resources/images/waffle_right_mid1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageBottomLeft = new ImageIcon(getClass().getResource("/resources/images/waffle_bottom_left1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        try {
-            waffleImageBottomMid = new ImageIcon(getClass().getResource("/resources/images/waffle_bottom_mid1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // Images dessinées par programme en attendant le décodage (voir Assets), qui se fait
+        // hors de l'EDT : la gaufre est visible dès la première image de la fenêtre
+        waffleImage = createDefaultWaffleImage();
+        waffleImageTopMid = waffleImage;
+        waffleImageTopRight = waffleImage;
+        waffleImageLeftMid = waffleImage;
+        waffleImageRightMid = waffleImage;
+        waffleImageBottomLeft = waffleImage;
+        waffleImageBottomMid = waffleImage;
+        waffleImageBottomRight = waffleImage;
+        poisonImage = createDefaultPoisonImage();
+        hintImage = createDefaultHintImage();
+    }
 
-        try {
-            waffleImageBottomRight = new ImageIcon(getClass().getResource("/resources/images/waffle_bottom_right1.png")).getImage();
-        } catch (Exception e) {
-            e.printStackTrace();
+    // Les vraies images remplacent celles dessinées par programme une fois décodées. L'abonnement
+    // se fait à l'ajout du panneau à sa fenêtre, et non dans le constructeur, pour que le rappel
+    // ne voie jamais un panneau à moitié construit.
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (!assetsRequested) {
+            assetsRequested = true;
+            Assets.whenLoaded(this::useImages);
         }
+    }
 
-        // Charger l'image de la case empoisonnée
-        try {
-            poisonImage = new ImageIcon(getClass().getResource("/resources/images/poison1.png")).getImage();
-        } catch (Exception e) {
-            // Si l'image ne peut pas être chargée, créer une image par défaut
-            poisonImage = createDefaultPoisonImage();
-        }
+    private void useImages(Map<String, BufferedImage> images) {
+        waffleImage = pick(images, Assets.WAFFLE, waffleImage);
+        waffleImageTopMid = pick(images, Assets.TOP_MID, waffleImage);
+        waffleImageTopRight = pick(images, Assets.TOP_RIGHT, waffleImage);
+        waffleImageLeftMid = pick(images, Assets.LEFT_MID, waffleImage);
+        waffleImageRightMid = pick(images, Assets.RIGHT_MID, waffleImage);
+        waffleImageBottomLeft = pick(images, Assets.BOTTOM_LEFT, waffleImage);
+        waffleImageBottomMid = pick(images, Assets.BOTTOM_MID, waffleImage);
+        waffleImageBottomRight = pick(images, Assets.BOTTOM_RIGHT, waffleImage);
+        poisonImage = pick(images, Assets.POISON, poisonImage);
+        hintImage = pick(images, Assets.HINT, hintImage);
+
+        // Cases remises à l'échelle et gaufre redessinée avec les vraies images
+        tileWidth = 0;
+        tileHeight = 0;
+        board = null;
+        repaint();
+    }
 
-        // Charger l'image de l'indice
-        try {
-            hintImage = new ImageIcon(getClass().getResource("/resources/images/hint1.png")).getImage();
-        } catch (Exception e) {
-            // Si l'image ne peut pas être chargée, créer une image par défaut
-            hintImage = createDefaultHintImage();
-        }
+    private static Image pick(Map<String, BufferedImage> images, String name, Image fallback) {
+        Image image = images.get(name);
+        return (image != null) ? image : fallback;
     }
 
     private Image createDefaultWaffleImage() {
@@ -201,90 +260,344 @@ public class WafflePanel extends JPanel {
     }
 
     public void updateWaffle(WaffleModel model) {
-        if (model != null) {
-            this.waffle = model.getWaffle();
+        if (model == null) {
+            return;
+        }
+        if (model.getWidth() != width || model.getHeight() != height) {
+            // Autre gaufre : tout est à redessiner
             this.width = model.getWidth();
             this.height = model.getHeight();
+            this.columnHeights = model.getColumnHeights();
+            board = null;
+            outline = null;
+            resetView();
+            return;
+        }
+
+        this.columnHeights = model.getColumnHeights();
+        outline = null;
+        if (board == null || !isBoardShown()) {
+            board = null;  // l'image de la gaufre entière sera refaite au retour au zoom 1
             repaint();
+            return;
+        }
+
+        // Seul le rectangle des colonnes qui ont changé est redessiné, sur l'image puis à l'écran
+        Rectangle dirty = updateBoard();
+        if (dirty != null) {
+            repaint(dirty);
         }
     }
 
     public void showHint(int x, int y) {
+        if (hintX >= 0) {
+            repaintCell(hintX, hintY);
+        }
         hintX = x;
         hintY = y;
-        repaint();
+        repaintCell(x, y);
         hintTimer.restart();
     }
 
+    private void repaintCell(int x, int y) {
+        if (x < 0) {
+            return;
+        }
+        if (isBoardShown()) {
+            repaint(x * tileWidth, y * tileHeight, tileWidth, tileHeight);
+        } else {
+            repaint();
+        }
+    }
+
+    // Revenir à la gaufre entière
+    public void resetView() {
+        zoom = 1;
+        panX = 0;
+        panY = 0;
+        repaint();
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    // Agrandit de factor en gardant sous (screenX, screenY) le même point de la gaufre
+    public void zoomAt(int screenX, int screenY, double factor) {
+        computeLayout();
+        double boardX = (screenX + panX) / cellWidth;
+        double boardY = (screenY + panY) / cellHeight;
+
+        double fitCell = Math.max(getWidth() / (double) width, getHeight() / (double) height);
+        double maxZoom = Math.max(1, MAX_CELL_PIXELS / fitCell);
+        zoom = Math.max(1, Math.min(maxZoom, zoom * factor));
+
+        computeLayout();
+        panX = boardX * cellWidth - screenX;
+        panY = boardY * cellHeight - screenY;
+        panBy(0, 0);
+    }
+
+    private void panBy(double dx, double dy) {
+        computeLayout();
+        // Décalage entier : les textures tombent sur des pixels entiers, comme les clics
+        panX = Math.round(Math.max(0, Math.min(width * cellWidth - getWidth(), panX + dx)));
+        panY = Math.round(Math.max(0, Math.min(height * cellHeight - getHeight(), panY + dy)));
+        repaint();
+    }
+
+    // Taille des cases au zoom courant. Au-dessus du seuil, des cases entières de pixels
+    // (textures) ; en dessous, des tailles fractionnaires pour que le polygone remplisse la vue.
+    private void computeLayout() {
+        double w = getWidth() / (double) width * zoom;
+        double h = getHeight() / (double) height * zoom;
+        detailed = Math.min(w, h) >= LOD_MIN_CELL_PIXELS;
+        cellWidth = detailed ? Math.floor(w) : w;
+        cellHeight = detailed ? Math.floor(h) : h;
+    }
+
+    // Gaufre entière, en textures : l'image de fond tenue à jour coup par coup est utilisable
+    private boolean isBoardShown() {
+        computeLayout();
+        return detailed && zoom == 1 && tileWidth > 0;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        if (waffle == null || width == 0 || height == 0) {
+        if (columnHeights == null || width == 0 || height == 0) {
             return;
         }
+        PaintEvent event = new PaintEvent();
+        event.begin();
+        long start = MetricsRegistry.start();
+
+        paintWaffle(g);
+
+        PAINT_TIME.recordSince(start);
+        if (event.shouldCommit()) {
+            Rectangle clip = g.getClipBounds();
+            event.mode = !detailed ? "outline" : (zoom == 1) ? "board" : "tiles";
+            event.width = width;
+            event.height = height;
+            event.clipPixels = (clip != null) ? (long) clip.width * clip.height : (long) getWidth() * getHeight();
+            event.commit();
+        }
+        Assets.firstFrame();
+    }
 
-        int cellWidth = getWidth() / width;
-        int cellHeight = getHeight() / height;
-
-        // Dessiner les cases de la gaufre
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (!waffle[y][x]) continue;
+    private void paintWaffle(Graphics g) {
+        computeLayout();
+        if (!detailed) {
+            paintOutline((Graphics2D) g);
+            return;
+        }
 
-                Image img;
-                // Coin supérieur gauche (empoisonné)
-                if (x == 0 && y == 0) {
-                    img = poisonImage;
+        int cellW = (int) cellWidth;
+        int cellH = (int) cellHeight;
+        if (cellW != tileWidth || cellH != tileHeight) {
+            scaleTiles(cellW, cellH);
+        }
+        boolean hinted = hintX >= 0 && hintX < width && hintY < columnHeights[hintX] && tiles[HINT] != null;
 
-                    // Coin supérieur droit
-                } else if (x == width - 1 && y == 0) {
-                    img = waffleImageTopRight;
+        if (zoom == 1) {
+            if (board == null) {
+                drawBoard();
+            }
+            // Le clip limite la copie à la zone à repeindre
+            g.drawImage(board, 0, 0, this);
+            if (hinted) {
+                g.drawImage(tiles[HINT], hintX * tileWidth, hintY * tileHeight, this);
+            }
+            return;
+        }
 
-                    // Coin inférieur gauche
-                } else if (x == 0 && y == height - 1) {
-                    img = waffleImageBottomLeft;
+        // Zoom : seules les cases visibles sont dessinées
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int offsetX = (int) panX;
+        int offsetY = (int) panY;
+        int firstX = Math.max(0, (clip.x + offsetX) / cellW);
+        int lastX = Math.min(width - 1, (clip.x + clip.width + offsetX) / cellW);
+        int firstY = Math.max(0, (clip.y + offsetY) / cellH);
+        int lastY = (clip.y + clip.height + offsetY) / cellH;
+        for (int x = firstX; x <= lastX; x++) {
+            int top = Math.min(lastY + 1, columnHeights[x]);
+            for (int y = firstY; y < top; y++) {
+                Image tile = tiles[tileKind(x, y)];
+                if (tile != null) {
+                    g.drawImage(tile, x * cellW - offsetX, y * cellH - offsetY, this);
+                }
+            }
+        }
+        if (hinted) {
+            g.drawImage(tiles[HINT], hintX * cellW - offsetX, hintY * cellH - offsetY, this);
+        }
+    }
 
-                    // Coin inférieur droit
-                } else if (x == width - 1 && y == height - 1) {
-                    img = waffleImageBottomRight;
+    // Cases plus petites que le seuil : un seul polygone plein, la case empoisonnée et
+    // l'indice restant visibles (au moins quelques pixels)
+    private void paintOutline(Graphics2D g) {
+        if (outline == null) {
+            outline = staircase(columnHeights);
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.translate(-panX, -panY);
+        g2.scale(cellWidth, cellHeight);
+        g2.setColor(WAFFLE_COLOR);
+        g2.fill(outline);
+        g2.dispose();
+
+        if (columnHeights[0] > 0) {
+            fillMarker(g, 0, 0, POISON_COLOR);
+        }
+        if (hintX >= 0 && hintX < width && hintY < columnHeights[hintX]) {
+            fillMarker(g, hintX, hintY, HINT_COLOR);
+        }
+    }
 
-                    // Bord haut (hors coins)
-                } else if (y == 0) {
-                    img = waffleImageTopMid;
+    // Repère centré sur la case, agrandi si la case est trop petite pour être vue
+    private void fillMarker(Graphics2D g, int x, int y, Color color) {
+        int w = Math.max(LOD_MIN_CELL_PIXELS, (int) Math.ceil(cellWidth));
+        int h = Math.max(LOD_MIN_CELL_PIXELS, (int) Math.ceil(cellHeight));
+        double centerX = (x + 0.5) * cellWidth - panX;
+        double centerY = (y + 0.5) * cellHeight - panY;
+        g.setColor(color);
+        g.fillRect((int) Math.round(centerX - w / 2.0), (int) Math.round(centerY - h / 2.0), w, h);
+    }
 
-                    // Bord bas (hors coins)
-                } else if (y == height - 1) {
-                    img = waffleImageBottomMid;
+    // Contour de l'escalier en coordonnées de cases : le long du haut, puis descente
+    // colonne par colonne jusqu'à la dernière non vide
+    private static Path2D.Double staircase(int[] heights) {
+        Path2D.Double path = new Path2D.Double();
+        if (heights.length == 0 || heights[0] == 0) {
+            return path;
+        }
+        int last = 0;
+        while (last + 1 < heights.length && heights[last + 1] > 0) {
+            last++;
+        }
+        path.moveTo(0, 0);
+        path.lineTo(last + 1, 0);
+        for (int x = last; x >= 0; x--) {
+            // Bord bas de la colonne x, puis montée (ou non) vers la colonne précédente
+            path.lineTo(x + 1, heights[x]);
+            path.lineTo(x, heights[x]);
+        }
+        path.closePath();
+        return path;
+    }
 
-                    // Bord gauche (hors coins)
-                } else if (x == 0) {
-                    img = waffleImageLeftMid;
+    // Mise à l'échelle unique de chaque image, avec interpolation de qualité : drawImage
+    // n'a plus ensuite qu'à copier des pixels
+    private void scaleTiles(int cellWidth, int cellHeight) {
+        Image[] sources = {
+                waffleImage, poisonImage, waffleImageTopMid, waffleImageTopRight, waffleImageLeftMid,
+                waffleImageRightMid, waffleImageBottomLeft, waffleImageBottomMid, waffleImageBottomRight,
+                hintImage
+        };
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        for (int kind = 0; kind < TILE_COUNT; kind++) {
+            if (sources[kind] == null) {
+                tiles[kind] = null;
+                continue;
+            }
+            BufferedImage tile = createImage(configuration, cellWidth, cellHeight);
+            Graphics2D g = tile.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(sources[kind], 0, 0, cellWidth, cellHeight, null);
+            g.dispose();
+            tiles[kind] = tile;
+        }
+        tileWidth = cellWidth;
+        tileHeight = cellHeight;
+        board = null;
+    }
 
-                    // Bord droit (hors coins)
-                } else if (x == width - 1) {
-                    img = waffleImageRightMid;
+    // Image compatible avec l'écran (copiée sans conversion, voire accélérée), transparente
+    private static BufferedImage createImage(GraphicsConfiguration configuration, int w, int h) {
+        if (configuration != null) {
+            return configuration.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    }
 
-                    // Case “intérieure” classique
-                } else {
-                    img = waffleImage;
-                }
+    private void drawBoard() {
+        board = createImage(getGraphicsConfiguration(), width * tileWidth, height * tileHeight);
+        boardHeights = new int[width];
+        updateBoard();
+    }
 
-                // Affichage de la case
-                g.drawImage(img,
-                        x * cellWidth, y * cellHeight,
-                        cellWidth, cellHeight,
-                        this);
-
-                // Dessiner l’indice si nécessaire
-                if (hintX == x && hintY == y) {
-                    g.drawImage(hintImage,
-                            x * cellWidth, y * cellHeight,
-                            cellWidth, cellHeight,
-                            this);
+    // Redessine sur l'image les colonnes dont la hauteur a changé depuis le dernier dessin.
+    // Retourne le rectangle modifié, ou null si rien n'a changé.
+    private Rectangle updateBoard() {
+        int first = -1;
+        int last = -1;
+        int top = height;
+        int bottom = 0;
+
+        Graphics2D g = board.createGraphics();
+        g.setComposite(AlphaComposite.Src);  // effacer = rendre transparent
+        for (int x = 0; x < width; x++) {
+            int from = boardHeights[x];
+            int to = columnHeights[x];
+            if (from == to) {
+                continue;
+            }
+            if (to < from) {
+                // Cases mangées
+                g.setColor(new Color(0, 0, 0, 0));
+                g.fillRect(x * tileWidth, to * tileHeight, tileWidth, (from - to) * tileHeight);
+            } else {
+                // Cases rendues (annulation, retour dans la chronologie)
+                for (int y = from; y < to; y++) {
+                    Image tile = tiles[tileKind(x, y)];
+                    if (tile != null) {
+                        g.drawImage(tile, x * tileWidth, y * tileHeight, null);
+                    }
                 }
             }
+            if (first < 0) {
+                first = x;
+            }
+            last = x;
+            top = Math.min(top, Math.min(from, to));
+            bottom = Math.max(bottom, Math.max(from, to));
+        }
+        g.dispose();
+        System.arraycopy(columnHeights, 0, boardHeights, 0, width);
+
+        if (first < 0) {
+            return null;
+        }
+        return new Rectangle(first * tileWidth, top * tileHeight,
+                (last - first + 1) * tileWidth, (bottom - top) * tileHeight);
+    }
+
+    // L'image d'une case ne dépend que de sa place dans la gaufre entière
+    private int tileKind(int x, int y) {
+        if (x == 0 && y == 0) {
+            return POISON;                  // Coin supérieur gauche (empoisonné)
+        } else if (x == width - 1 && y == 0) {
+            return TOP_RIGHT;
+        } else if (x == 0 && y == height - 1) {
+            return BOTTOM_LEFT;
+        } else if (x == width - 1 && y == height - 1) {
+            return BOTTOM_RIGHT;
+        } else if (y == 0) {
+            return TOP_MID;                 // Bord haut (hors coins)
+        } else if (y == height - 1) {
+            return BOTTOM_MID;
+        } else if (x == 0) {
+            return LEFT_MID;
+        } else if (x == width - 1) {
+            return RIGHT_MID;
         }
+        return CENTER;                      // Case “intérieure” classique
     }
 
 }
\ No newline at end of file